@@ -0,0 +1,17 @@
+package com.nutritheous.analyzer;
+
+/**
+ * Scheduling class of an analysis request in {@link AnalyzerScheduler}.
+ */
+public enum AnalysisPriority {
+    /** A user is waiting for the result, e.g. a meal upload. */
+    INTERACTIVE,
+    /** Re-running an analysis that failed earlier. */
+    RETRY,
+    /** Bulk re-analysis of existing meals. */
+    BACKFILL;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
@@ -1,7 +1,9 @@
 package com.nutritheous.analyzer;
 
 import com.nutritheous.common.dto.AnalysisResponse;
+import com.nutritheous.common.exception.AnalyzerException;
 import com.nutritheous.storage.GoogleCloudStorageService;
+import com.nutritheous.usage.TokenUsageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,18 +16,25 @@ import java.util.Map;
 public class AnalyzerDebugController {
 
     @Autowired
-    private AnalyzerService analyzerService;
+    private AnalyzerScheduler analyzerScheduler;
 
     @Autowired
     private GoogleCloudStorageService storageService;
 
+    @Autowired
+    private TokenUsageService tokenUsageService;
+
     @PostMapping("/test-analyzer")
     public ResponseEntity<AnalysisResponse> testAnalyzer(
             @RequestParam String imageUrl,
             @RequestParam(required = false) String description) {
         try {
-            AnalysisResponse response = analyzerService.analyzeImage(imageUrl, description);
+            AnalysisResponse response = analyzerScheduler.analyzeImage(AnalysisPriority.INTERACTIVE, imageUrl, description);
+            tokenUsageService.record(null, null, TokenUsageService.ENDPOINT_DEBUG_ANALYZER, response.getTokenUsage());
             return ResponseEntity.ok(response);
+        } catch (AnalyzerException e) {
+            tokenUsageService.record(null, null, TokenUsageService.ENDPOINT_DEBUG_ANALYZER, e.getTokenUsage());
+            throw new RuntimeException("Analyzer test failed: " + e.getMessage(), e);
         } catch (Exception e) {
             throw new RuntimeException("Analyzer test failed: " + e.getMessage(), e);
         }
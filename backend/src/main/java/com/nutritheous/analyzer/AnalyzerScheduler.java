@@ -0,0 +1,322 @@
+package com.nutritheous.analyzer;
+
+import com.nutritheous.common.dto.AnalysisResponse;
+import com.nutritheous.common.exception.AnalyzerException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs analyzer calls on a fixed set of workers, shared between priority classes:
+ * <ul>
+ *   <li>Each class has its own bounded queue and a cap on how many of its calls run at once.</li>
+ *   <li>Free workers go to the waiting classes in proportion to their weights (stride scheduling).</li>
+ *   <li>Retry and backfill together never hold the workers reserved for interactive calls.</li>
+ *   <li>While interactive calls are pending and their recent p95 latency is over budget, retry and
+ *       backfill calls are held back until it recovers.</li>
+ * </ul>
+ * Queue depth, running calls, wait and run time are exported per class. Callers that wait on a
+ * result give up after the queue wait budget plus the OpenAI timeout; a call they gave up on is
+ * dropped from the queue rather than started.
+ */
+@Service
+@Slf4j
+public class AnalyzerScheduler {
+
+    private static final int LATENCY_SAMPLES = 100;
+
+    /** Room for the image download and response parsing on top of the OpenAI call itself. */
+    private static final Duration CALL_OVERHEAD = Duration.ofSeconds(10);
+
+    private final ContextSnapshotFactory contextSnapshotFactory = ContextSnapshotFactory.builder().build();
+
+    private final AnalyzerService analyzerService;
+    private final TaskExecutor executor;
+    private final int workers;
+    private final int backgroundSlots;
+    private final long interactiveBudgetNanos;
+    private final Duration awaitTimeout;
+
+    private final Map<AnalysisPriority, PriorityClass> classes = new EnumMap<>(AnalysisPriority.class);
+    private int running;
+    private double virtualTime;
+
+    /** End-to-end latency of recent interactive calls, as a ring buffer. */
+    private final long[] interactiveLatencies = new long[LATENCY_SAMPLES];
+    private int latencyCount;
+    private boolean interactiveOverBudget;
+
+    public AnalyzerScheduler(
+            AnalyzerService analyzerService,
+            @Qualifier("analyzerExecutor") TaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${analyzer.scheduler.workers:8}") int workers,
+            @Value("${analyzer.scheduler.interactive-reserved:2}") int interactiveReserved,
+            @Value("${analyzer.scheduler.interactive-p95-budget:PT20S}") Duration interactiveBudget,
+            @Value("${analyzer.scheduler.interactive.weight:8}") int interactiveWeight,
+            @Value("${analyzer.scheduler.interactive.max-concurrency:8}") int interactiveMaxConcurrency,
+            @Value("${analyzer.scheduler.interactive.max-queue:200}") int interactiveMaxQueue,
+            @Value("${analyzer.scheduler.retry.weight:2}") int retryWeight,
+            @Value("${analyzer.scheduler.retry.max-concurrency:2}") int retryMaxConcurrency,
+            @Value("${analyzer.scheduler.retry.max-queue:1000}") int retryMaxQueue,
+            @Value("${analyzer.scheduler.backfill.weight:1}") int backfillWeight,
+            @Value("${analyzer.scheduler.backfill.max-concurrency:2}") int backfillMaxConcurrency,
+            @Value("${analyzer.scheduler.backfill.max-queue:10000}") int backfillMaxQueue,
+            @Value("${analyzer.scheduler.max-queue-wait:PT60S}") Duration maxQueueWait,
+            @Value("${openai.api.timeout:30}") int openAiTimeoutSeconds) {
+        this.analyzerService = analyzerService;
+        this.executor = executor;
+        this.workers = workers;
+        this.backgroundSlots = Math.max(0, workers - interactiveReserved);
+        this.interactiveBudgetNanos = interactiveBudget.toNanos();
+        this.awaitTimeout = maxQueueWait.plusSeconds(openAiTimeoutSeconds).plus(CALL_OVERHEAD);
+
+        classes.put(AnalysisPriority.INTERACTIVE, new PriorityClass(AnalysisPriority.INTERACTIVE,
+                interactiveWeight, interactiveMaxConcurrency, interactiveMaxQueue, meterRegistry));
+        classes.put(AnalysisPriority.RETRY, new PriorityClass(AnalysisPriority.RETRY,
+                retryWeight, retryMaxConcurrency, retryMaxQueue, meterRegistry));
+        classes.put(AnalysisPriority.BACKFILL, new PriorityClass(AnalysisPriority.BACKFILL,
+                backfillWeight, backfillMaxConcurrency, backfillMaxQueue, meterRegistry));
+
+        log.info("🧮 Analyzer scheduler: {} workers, {} available to retry/backfill, interactive p95 budget {}",
+                workers, backgroundSlots, interactiveBudget);
+    }
+
+    /**
+     * Analyzes an image with the given priority, waiting for the result.
+     *
+     * @throws AnalyzerException if the analysis fails or the class queue is full
+     */
+    public AnalysisResponse analyzeImage(AnalysisPriority priority, String imageUrl, String userDescription) {
+        return await(submit(priority, () -> analyzerService.analyzeImage(imageUrl, userDescription)));
+    }
+
+    /**
+     * Analyzes a text description with the given priority, waiting for the result.
+     *
+     * @throws AnalyzerException if the analysis fails or the class queue is full
+     */
+    public AnalysisResponse analyzeTextOnly(AnalysisPriority priority, String description) {
+        return await(submit(priority, () -> analyzerService.analyzeTextOnly(description)));
+    }
+
+    /**
+     * Queues an analyzer call. Background work should use this and not wait on the result.
+     * The future fails with {@link AnalyzerException} right away if the class queue is full.
+     */
+    public CompletableFuture<AnalysisResponse> submit(AnalysisPriority priority, Callable<AnalysisResponse> call) {
+        CompletableFuture<AnalysisResponse> future = new CompletableFuture<>();
+        synchronized (this) {
+            PriorityClass priorityClass = classes.get(priority);
+            if (priorityClass.queue.size() >= priorityClass.maxQueue) {
+                priorityClass.rejected.increment();
+                log.warn("⚠️  Analyzer {} queue full ({} waiting) - rejecting", priority.tag(), priorityClass.queue.size());
+                future.completeExceptionally(new AnalyzerException(
+                        "Analyzer is overloaded, " + priority.tag() + " queue is full"));
+                return future;
+            }
+            if (priorityClass.queue.isEmpty() && priorityClass.running == 0) {
+                // A class that was idle starts at the current virtual time instead of with saved-up credit
+                priorityClass.pass = Math.max(priorityClass.pass, virtualTime);
+            }
+            // Captured here, on the submitting thread: the call may be started by whichever thread
+            // frees a worker, so the executor cannot propagate the trace context by itself
+            priorityClass.queue.addLast(new Task(priority, call, future, System.nanoTime(),
+                    contextSnapshotFactory.captureAll()));
+            dispatch();
+        }
+        return future;
+    }
+
+    /**
+     * Starts queued calls while workers are free. Called with the monitor held.
+     */
+    private void dispatch() {
+        while (running < workers) {
+            PriorityClass next = null;
+            for (PriorityClass candidate : classes.values()) {
+                if (isEligible(candidate) && (next == null || candidate.pass < next.pass)) {
+                    next = candidate;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+
+            Task task = next.queue.pollFirst();
+            if (task.future().isDone()) {
+                // The caller stopped waiting for it
+                continue;
+            }
+            next.running++;
+            running++;
+            virtualTime = next.pass;
+            next.pass += 1.0 / next.weight;
+
+            long startedAt = System.nanoTime();
+            next.waitTimer.record(startedAt - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+            try {
+                executor.execute(() -> run(task, startedAt));
+            } catch (TaskRejectedException e) {
+                // Only when the pool is shutting down: it has as many threads as there are workers
+                next.running--;
+                running--;
+                next.rejected.increment();
+                log.warn("⚠️  Analyzer executor rejected a {} call - failing it", next.priority.tag());
+                task.future().completeExceptionally(new AnalyzerException("Analyzer is unavailable", e));
+                return;
+            }
+        }
+    }
+
+    private boolean isEligible(PriorityClass candidate) {
+        if (candidate.queue.isEmpty() || candidate.running >= candidate.maxConcurrency) {
+            return false;
+        }
+        if (candidate.priority == AnalysisPriority.INTERACTIVE) {
+            return true;
+        }
+        PriorityClass interactive = classes.get(AnalysisPriority.INTERACTIVE);
+        int background = running - interactive.running;
+        if (background >= backgroundSlots) {
+            return false;
+        }
+        boolean interactivePending = !interactive.queue.isEmpty() || interactive.running > 0;
+        return !(interactivePending && interactiveOverBudget);
+    }
+
+    private void run(Task task, long startedAt) {
+        PriorityClass priorityClass = classes.get(task.priority());
+        try {
+            // Run with the submitter's observation and MDC, restored on this worker thread
+            task.future().complete(task.context().wrap(task.call()).call());
+        } catch (Throwable e) {
+            task.future().completeExceptionally(e);
+        } finally {
+            long finishedAt = System.nanoTime();
+            priorityClass.runTimer.record(finishedAt - startedAt, TimeUnit.NANOSECONDS);
+            synchronized (this) {
+                priorityClass.running--;
+                running--;
+                if (task.priority() == AnalysisPriority.INTERACTIVE) {
+                    recordInteractiveLatency(finishedAt - task.enqueuedAt());
+                }
+                dispatch();
+            }
+        }
+    }
+
+    private void recordInteractiveLatency(long latencyNanos) {
+        interactiveLatencies[latencyCount % LATENCY_SAMPLES] = latencyNanos;
+        latencyCount++;
+
+        long[] samples = Arrays.copyOf(interactiveLatencies, Math.min(latencyCount, LATENCY_SAMPLES));
+        Arrays.sort(samples);
+        long p95 = samples[(int) Math.ceil(samples.length * 0.95) - 1];
+        boolean overBudget = p95 > interactiveBudgetNanos;
+        if (overBudget != interactiveOverBudget) {
+            log.warn(overBudget
+                    ? "🐢 Interactive analyzer p95 {}ms is over budget - holding back retry/backfill"
+                    : "✅ Interactive analyzer p95 {}ms is back within budget - resuming retry/backfill",
+                    TimeUnit.NANOSECONDS.toMillis(p95));
+            interactiveOverBudget = overBudget;
+        }
+    }
+
+    private AnalysisResponse await(CompletableFuture<AnalysisResponse> future) {
+        try {
+            return future.get(awaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Still queued: it is skipped at dispatch. Already running: its result is discarded
+            future.cancel(false);
+            log.warn("⏱️  Gave up waiting for analysis after {}", awaitTimeout);
+            throw new AnalyzerException("Timed out waiting for analysis", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new AnalyzerException("Interrupted while waiting for analysis", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AnalyzerException analyzerException) {
+                throw analyzerException;
+            }
+            throw new AnalyzerException("Failed to analyze meal: " + cause.getMessage(), cause);
+        }
+    }
+
+    private record Task(AnalysisPriority priority, Callable<AnalysisResponse> call,
+                        CompletableFuture<AnalysisResponse> future, long enqueuedAt,
+                        ContextSnapshot context) {
+    }
+
+    private final class PriorityClass {
+        private final AnalysisPriority priority;
+        private final int weight;
+        private final int maxConcurrency;
+        private final int maxQueue;
+        private final ArrayDeque<Task> queue = new ArrayDeque<>();
+        private int running;
+        private double pass;
+
+        private final Timer waitTimer;
+        private final Timer runTimer;
+        private final Counter rejected;
+
+        private PriorityClass(AnalysisPriority priority, int weight, int maxConcurrency, int maxQueue,
+                              MeterRegistry meterRegistry) {
+            this.priority = priority;
+            this.weight = Math.max(1, weight);
+            this.maxConcurrency = maxConcurrency;
+            this.maxQueue = maxQueue;
+
+            String tag = priority.tag();
+            this.waitTimer = Timer.builder("analyzer.scheduler.wait")
+                    .tag("class", tag)
+                    .description("Time analyzer calls spend queued")
+                    .publishPercentiles(0.5, 0.95)
+                    .register(meterRegistry);
+            this.runTimer = Timer.builder("analyzer.scheduler.run")
+                    .tag("class", tag)
+                    .description("Time analyzer calls spend running")
+                    .publishPercentiles(0.5, 0.95)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("analyzer.scheduler.rejected")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("analyzer.scheduler.queue", this, c -> queueSize(c))
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("analyzer.scheduler.running", this, c -> runningCount(c))
+                    .tag("class", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    private synchronized int queueSize(PriorityClass priorityClass) {
+        return priorityClass.queue.size();
+    }
+
+    private synchronized int runningCount(PriorityClass priorityClass) {
+        return priorityClass.running;
+    }
+}
@@ -1,5 +1,6 @@
 package com.nutritheous.analyzer;
 
+import com.nutritheous.common.metrics.PipelineMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -30,6 +31,12 @@ public class ImageProcessingService {
             "jpg", "jpeg", "png", "gif", "bmp", "webp"
     );
 
+    private final PipelineMetrics pipelineMetrics;
+
+    public ImageProcessingService(PipelineMetrics pipelineMetrics) {
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
     /**
      * Downloads an image from a URL and processes it for AI analysis.
      *
@@ -41,10 +48,10 @@ public class ImageProcessingService {
         log.info("Downloading and processing image from URL: {}", imageUrl);
 
         // Download image
-        byte[] imageData = downloadImage(imageUrl);
+        byte[] imageData = pipelineMetrics.time(PipelineMetrics.IMAGE_DOWNLOAD, () -> downloadImage(imageUrl));
 
         // Process the image
-        return processImageData(imageData);
+        return pipelineMetrics.time(PipelineMetrics.IMAGE_PROCESS, () -> processImageData(imageData));
     }
 
     /**
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nutritheous.common.dto.AnalysisResponse;
 import com.nutritheous.common.exception.AnalyzerException;
+import com.nutritheous.common.metrics.PipelineMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -28,14 +29,17 @@ public class OpenAIVisionService {
     private final String apiKey;
     private final String model;
     private final int maxTokens;
+    private final PipelineMetrics pipelineMetrics;
 
     public OpenAIVisionService(
             RestTemplate restTemplate,
+            PipelineMetrics pipelineMetrics,
             @Value("${openai.api.key}") String apiKey,
             @Value("${openai.api.model:gpt-4o-mini}") String model,
             @Value("${openai.api.max-tokens:800}") int maxTokens) {
 
         this.restTemplate = restTemplate;
+        this.pipelineMetrics = pipelineMetrics;
         this.objectMapper = new ObjectMapper();
         this.apiKey = apiKey;
         this.model = model;
@@ -79,45 +83,13 @@ public class OpenAIVisionService {
                 "messages", Arrays.asList(message)
             );
 
-            // Set up headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(apiKey);
-
-            // Create HTTP entity
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-            // Make the API call
-            log.debug("Calling OpenAI API: {}", OPENAI_API_URL);
-            ResponseEntity<String> response = restTemplate.exchange(
-                    OPENAI_API_URL,
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                throw new AnalyzerException("OpenAI API returned error: " + response.getStatusCode());
-            }
-
-            // Parse the response
-            JsonNode responseJson = objectMapper.readTree(response.getBody());
-
-            if (!responseJson.has("choices") || responseJson.get("choices").isEmpty()) {
-                throw new AnalyzerException("No response from OpenAI API");
-            }
-
-            // Extract the content
-            String content = responseJson.get("choices").get(0)
-                    .get("message")
-                    .get("content")
-                    .asText();
+            Completion completion = complete(requestBody);
 
             log.info("Received OpenAI response");
-            log.debug("Response content: {}", content);
+            log.debug("Response content: {}", completion.content());
 
             // Parse and return the analysis
-            return parseResponse(content);
+            return parseCompletion(completion);
 
         } catch (AnalyzerException e) {
             throw e;
@@ -127,6 +99,72 @@ public class OpenAIVisionService {
         }
     }
 
+    /**
+     * Sends a chat completions request and returns the content of the first choice with the
+     * tokens it cost.
+     */
+    private Completion complete(Map<String, Object> requestBody) throws IOException {
+        // Set up headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(apiKey);
+
+        // Create HTTP entity
+        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
+
+        // Make the API call
+        log.debug("Calling OpenAI API: {}", OPENAI_API_URL);
+        ResponseEntity<String> response = pipelineMetrics.time(PipelineMetrics.OPENAI_CALL, () -> restTemplate.exchange(
+                OPENAI_API_URL,
+                HttpMethod.POST,
+                entity,
+                String.class
+        ));
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            throw new AnalyzerException("OpenAI API returned error: " + response.getStatusCode());
+        }
+
+        // Parse the response
+        JsonNode responseJson = objectMapper.readTree(response.getBody());
+
+        // Tokens are billed even when the answer turns out to be unusable, so read them first
+        JsonNode usageJson = responseJson.path("usage");
+        TokenUsage usage = new TokenUsage(
+                responseJson.path("model").asText(model),
+                usageJson.path("prompt_tokens").asInt(),
+                usageJson.path("completion_tokens").asInt());
+
+        if (!responseJson.has("choices") || responseJson.get("choices").isEmpty()) {
+            throw new AnalyzerException("No response from OpenAI API", null, usage);
+        }
+
+        // Extract the content
+        String content = responseJson.get("choices").get(0)
+                .get("message")
+                .get("content")
+                .asText();
+        return new Completion(content, usage);
+    }
+
+    /**
+     * Parses the analysis out of a completion; the token usage is attached to the result, or to
+     * the exception if the content cannot be used.
+     */
+    private AnalysisResponse parseCompletion(Completion completion) {
+        try {
+            AnalysisResponse response = pipelineMetrics.time(PipelineMetrics.JSON_PARSE,
+                    () -> parseResponse(completion.content()));
+            response.setTokenUsage(completion.usage());
+            return response;
+        } catch (AnalyzerException e) {
+            throw new AnalyzerException(e.getMessage(), e.getCause(), completion.usage());
+        }
+    }
+
+    private record Completion(String content, TokenUsage usage) {
+    }
+
     /**
      * Parses the OpenAI response and converts it to AnalysisResponse.
      */
@@ -263,45 +301,13 @@ public class OpenAIVisionService {
                 "messages", Arrays.asList(message)
             );
 
-            // Set up headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.setBearerAuth(apiKey);
-
-            // Create HTTP entity
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-            // Make the API call
-            log.debug("Calling OpenAI API for text-only analysis: {}", OPENAI_API_URL);
-            ResponseEntity<String> response = restTemplate.exchange(
-                    OPENAI_API_URL,
-                    HttpMethod.POST,
-                    entity,
-                    String.class
-            );
-
-            if (!response.getStatusCode().is2xxSuccessful()) {
-                throw new AnalyzerException("OpenAI API returned error: " + response.getStatusCode());
-            }
-
-            // Parse the response
-            JsonNode responseJson = objectMapper.readTree(response.getBody());
-
-            if (!responseJson.has("choices") || responseJson.get("choices").isEmpty()) {
-                throw new AnalyzerException("No response from OpenAI API");
-            }
-
-            // Extract the content
-            String content = responseJson.get("choices").get(0)
-                    .get("message")
-                    .get("content")
-                    .asText();
+            Completion completion = complete(requestBody);
 
             log.info("Received OpenAI text-only response");
-            log.debug("Response content: {}", content);
+            log.debug("Response content: {}", completion.content());
 
             // Parse and return the analysis
-            return parseResponse(content);
+            return parseCompletion(completion);
 
         } catch (AnalyzerException e) {
             throw e;
@@ -0,0 +1,11 @@
+package com.nutritheous.analyzer;
+
+/**
+ * Tokens billed for one OpenAI call, from the {@code usage} block of the response.
+ */
+public record TokenUsage(String model, int promptTokens, int completionTokens) {
+
+    public int totalTokens() {
+        return promptTokens + completionTokens;
+    }
+}
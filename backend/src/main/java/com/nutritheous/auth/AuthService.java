@@ -8,11 +8,20 @@ import com.nutritheous.common.exception.UserAlreadyExistsException;
 import com.nutritheous.service.CalorieCalculationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
 
 @Service
 @Slf4j
@@ -22,19 +31,34 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
 
     @Autowired
     private JwtService jwtService;
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private TransactionTemplate transactionTemplate;
 
     @Autowired
     private CalorieCalculationService calorieCalculationService;
 
-    public AuthResponse register(RegisterRequest request) {
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpiration;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public AuthResponse register(RegisterRequest request, String clientIp) {
         log.info("📝 Registration attempt for email: {}", request.getEmail());
+        loginAttemptLimiter.checkAttempt(clientIp, null);
 
         if (userRepository.existsByEmail(request.getEmail())) {
             log.warn("❌ Registration failed - Email already exists: {}", request.getEmail());
@@ -50,9 +74,12 @@ public class AuthService {
                 request.getActivityLevel()
         );
 
+        // Hashed on the bounded hashing pool, outside any transaction
+        String passwordHash = passwordHashingService.encode(request.getPassword());
+
         User user = User.builder()
                 .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHash)
                 .role("USER")
                 .age(request.getAge())
                 .heightCm(request.getHeightCm())
@@ -62,51 +89,135 @@ public class AuthService {
                 .estimatedCaloriesBurntPerDay(estimatedCalories)
                 .build();
 
-        user = userRepository.save(user);
-
-        String token = jwtService.generateToken(user);
+        AuthResponse response = transactionTemplate.execute(status ->
+                issueTokens(userRepository.save(user), UUID.randomUUID()));
 
-        log.info("✅ Registration successful - User: {}, ID: {}", user.getEmail(), user.getId());
-        log.info("🎫 Generated JWT token (length: {} chars)", token.length());
+        log.info("✅ Registration successful - User: {}, ID: {}", response.getEmail(), response.getUserId());
+        log.info("🎫 Generated JWT token (length: {} chars)", response.getToken().length());
 
-        return AuthResponse.builder()
-                .token(token)
-                .email(user.getEmail())
-                .role(user.getRole())
-                .userId(user.getId())
-                .build();
+        return response;
     }
 
-    public AuthResponse login(LoginRequest request) {
+    public AuthResponse login(LoginRequest request, String clientIp) {
         log.info("🔐 Login attempt for email: {}", request.getEmail());
+        // Rejected attempts cost no hashing at all
+        loginAttemptLimiter.checkAttempt(clientIp, request.getEmail());
 
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(),
-                            request.getPassword()
-                    )
-            );
-        } catch (AuthenticationException e) {
+        User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+        String storedHash = user != null ? user.getPasswordHash() : null;
+        if (!passwordHashingService.matches(request.getPassword(), storedHash) || !user.isEnabled()) {
+            loginAttemptLimiter.recordFailure(request.getEmail());
             log.warn("❌ Login failed - Invalid credentials for: {}", request.getEmail());
             throw new InvalidCredentialsException("Invalid email or password");
         }
+        loginAttemptLimiter.recordSuccess(request.getEmail());
 
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new InvalidCredentialsException("Invalid email or password"));
+        if (passwordHashingService.needsRehash(storedHash)) {
+            userRepository.updatePasswordHash(user.getId(), passwordHashingService.encode(request.getPassword()));
+            log.info("🔑 Upgraded password hash cost for user {}", user.getId());
+        }
 
-        String token = jwtService.generateToken(user);
+        AuthResponse response = issueTokens(user, UUID.randomUUID());
 
         log.info("✅ Login successful - User: {}, ID: {}", user.getEmail(), user.getId());
-        log.info("🎫 Generated JWT token (length: {} chars)", token.length());
+        log.info("🎫 Generated JWT token (length: {} chars)", response.getToken().length());
         log.info("📋 Authorization header for curl:");
-        log.info("   -H \"Authorization: Bearer {}\"", token);
+        log.info("   -H \"Authorization: Bearer {}\"", response.getToken());
+
+        return response;
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token (rotation).
+     * Presenting an already rotated token means it was copied, so the whole family is revoked.
+     */
+    @Transactional(noRollbackFor = InvalidCredentialsException.class)
+    public AuthResponse refresh(String refreshToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken))
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (stored.getRevokedAt() != null) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId(), now);
+            log.warn("🚨 Refresh token reuse detected for user {} - revoked token family {}",
+                    stored.getUser().getId(), stored.getFamilyId());
+            throw new InvalidCredentialsException("Invalid refresh token");
+        }
+        if (!stored.getExpiresAt().isAfter(now)) {
+            throw new InvalidCredentialsException("Refresh token expired");
+        }
+
+        stored.setRevokedAt(now);
+        refreshTokenRepository.save(stored);
+
+        log.info("🔄 Refreshed tokens for user {}", stored.getUser().getId());
+        return issueTokens(stored.getUser(), stored.getFamilyId());
+    }
+
+    /**
+     * Ends a session: revokes the refresh token family and, when given, the current access token.
+     */
+    @Transactional
+    public void logout(String refreshToken, JwtClaims accessClaims) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken)).ifPresent(stored -> {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId(), LocalDateTime.now());
+            if (accessClaims != null && stored.getUser().getEmail().equals(accessClaims.subject())) {
+                tokenRevocationService.revoke(accessClaims, stored.getUser().getId());
+            }
+            log.info("👋 Logged out user {}", stored.getUser().getId());
+        });
+    }
+
+    /**
+     * Ends every session of a user: all refresh tokens and the current access token. Other access
+     * tokens stay valid until they expire, which the short access token lifetime bounds.
+     */
+    @Transactional
+    public void logoutAll(User user, JwtClaims accessClaims) {
+        int revoked = refreshTokenRepository.revokeAllForUser(user.getId(), LocalDateTime.now());
+        if (accessClaims != null) {
+            tokenRevocationService.revoke(accessClaims, user.getId());
+        }
+        log.info("👋 Logged out user {} from all sessions ({} refresh tokens revoked)", user.getId(), revoked);
+    }
+
+    @Scheduled(cron = "${auth.refresh-token.cleanup-cron:0 15 4 * * *}")
+    @Transactional
+    public void deleteExpiredRefreshTokens() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("🧹 Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    private AuthResponse issueTokens(User user, UUID familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(refreshToken))
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000))
+                .build());
 
         return AuthResponse.builder()
-                .token(token)
+                .token(jwtService.generateToken(user))
+                .refreshToken(refreshToken)
+                .expiresIn(jwtService.getAccessTokenExpiration() / 1000)
                 .email(user.getEmail())
                 .role(user.getRole())
                 .userId(user.getId())
                 .build();
     }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
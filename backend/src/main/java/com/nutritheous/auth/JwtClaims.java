@@ -0,0 +1,18 @@
+package com.nutritheous.auth;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable view of the claims of a token whose signature and expiry have been verified.
+ */
+public record JwtClaims(String subject, String tokenId, Instant issuedAt, Instant expiresAt, Map<String, Object> claims) {
+
+    public JwtClaims {
+        claims = Map.copyOf(claims);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
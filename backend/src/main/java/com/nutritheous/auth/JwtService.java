@@ -1,36 +1,84 @@
 package com.nutritheous.auth;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    private final long jwtExpiration;
+    private final SecretKey signInKey;
+    private final JwtParser parser;
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    /**
+     * Recently verified tokens, keyed by the full compact token (never by signature alone, which
+     * would let a reused signature vouch for a different payload). Disabled when the size is 0.
+     */
+    private final Map<String, JwtClaims> verifiedTokens;
+    private final int verifiedCacheSize;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public JwtService(
+            @Value("${jwt.secret}") String secretKey,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.verified-cache-size:0}") int verifiedCacheSize) {
+        this.jwtExpiration = jwtExpiration;
+        // Key and parser are immutable and thread-safe, so they are built once
+        this.signInKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+        this.verifiedCacheSize = verifiedCacheSize;
+        this.verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JwtClaims> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Verifies the signature and expiry of a token and parses it, in a single step.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public JwtClaims verify(String token) {
+        if (verifiedCacheSize > 0) {
+            JwtClaims cached;
+            synchronized (verifiedTokens) {
+                cached = verifiedTokens.get(token);
+            }
+            if (cached != null && !cached.isExpired(Instant.now())) {
+                return cached;
+            }
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        JwtClaims verified = new JwtClaims(
+                claims.getSubject(),
+                claims.getId(),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                claims
+        );
+
+        if (verifiedCacheSize > 0) {
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(token, verified);
+            }
+        }
+        return verified;
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -47,37 +95,33 @@ public class JwtService {
             long expiration
     ) {
         return Jwts.builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .claims(extraClaims)
+                .subject(userDetails.getUsername())
+                // Unique id so that a single access token can be revoked
+                .id(UUID.randomUUID().toString())
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(signInKey, Jwts.SIG.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Lifetime of access tokens, in milliseconds.
+     */
+    public long getAccessTokenExpiration() {
+        return jwtExpiration;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Checks already verified claims against the loaded user; no further parsing.
+     */
+    public boolean isTokenValid(JwtClaims claims, UserDetails userDetails) {
+        return claims.subject() != null
+                && claims.subject().equals(userDetails.getUsername())
+                && !claims.isExpired(Instant.now());
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
     }
 }
@@ -0,0 +1,171 @@
+package com.nutritheous.auth;
+
+import com.nutritheous.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-window limits on sign-in attempts, checked before any password hashing:
+ * every attempt counts against the client IP, and failed attempts count against the email.
+ * A successful login clears the email's failures. State is per node.
+ */
+@Component
+@Slf4j
+public class LoginAttemptLimiter {
+
+    private static final int EVICT_FRACTION = 10;
+
+    private final boolean enabled;
+    private final int maxAttemptsPerIp;
+    private final long ipWindowMillis;
+    private final int maxFailuresPerEmail;
+    private final long emailWindowMillis;
+    private final int maxKeys;
+
+    private final Map<String, Window> ipAttempts = new ConcurrentHashMap<>();
+    private final Map<String, Window> emailFailures = new ConcurrentHashMap<>();
+    private final Counter rejectedByIp;
+    private final Counter rejectedByEmail;
+
+    public LoginAttemptLimiter(
+            @Value("${auth.login-limit.enabled:true}") boolean enabled,
+            @Value("${auth.login-limit.ip.max-attempts:20}") int maxAttemptsPerIp,
+            @Value("${auth.login-limit.ip.window:PT1M}") Duration ipWindow,
+            @Value("${auth.login-limit.email.max-failures:5}") int maxFailuresPerEmail,
+            @Value("${auth.login-limit.email.window:PT15M}") Duration emailWindow,
+            @Value("${auth.login-limit.max-keys:100000}") int maxKeys,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.ipWindowMillis = ipWindow.toMillis();
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.emailWindowMillis = emailWindow.toMillis();
+        this.maxKeys = maxKeys;
+        this.rejectedByIp = Counter.builder("auth.login.limited").tag("key", "ip").register(meterRegistry);
+        this.rejectedByEmail = Counter.builder("auth.login.limited").tag("key", "email").register(meterRegistry);
+    }
+
+    /**
+     * Counts an attempt from this IP and rejects it if the IP or the email is over its limit.
+     *
+     * @throws TooManyRequestsException with the seconds until the window resets
+     */
+    public void checkAttempt(String clientIp, String email) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        if (email != null) {
+            Window failures = emailFailures.get(normalize(email));
+            if (failures != null && failures.reached(maxFailuresPerEmail, now)) {
+                rejectedByEmail.increment();
+                log.warn("🚫 Too many failed logins for: {}", email);
+                throw new TooManyRequestsException("Too many failed login attempts, please try again later",
+                        failures.secondsUntilReset(now));
+            }
+        }
+
+        if (clientIp != null) {
+            Window attempts = increment(ipAttempts, clientIp, ipWindowMillis, now, true);
+            if (attempts.reached(maxAttemptsPerIp + 1, now)) {
+                rejectedByIp.increment();
+                log.warn("🚫 Too many login attempts from: {}", clientIp);
+                throw new TooManyRequestsException("Too many login attempts, please try again later",
+                        attempts.secondsUntilReset(now));
+            }
+        }
+    }
+
+    public void recordFailure(String email) {
+        if (enabled && email != null) {
+            increment(emailFailures, normalize(email), emailWindowMillis, System.currentTimeMillis(), false);
+        }
+    }
+
+    public void recordSuccess(String email) {
+        if (enabled && email != null) {
+            emailFailures.remove(normalize(email));
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        ipAttempts.values().removeIf(window -> window.isExpired(now));
+        emailFailures.values().removeIf(window -> window.isExpired(now));
+    }
+
+    /**
+     * Counts one more against the key. Memory stays bounded under a flood of distinct keys: a full
+     * map first drops expired windows; after that, IP windows give way oldest first (an evicted IP
+     * only starts a fresh window), while live email failures are never dropped - a new email is
+     * left uncounted until room frees up, and still pays its attempt against the IP.
+     */
+    private Window increment(Map<String, Window> windows, String key, long windowMillis, long now,
+                             boolean evictLive) {
+        if (windows.size() >= maxKeys && !windows.containsKey(key)) {
+            windows.values().removeIf(window -> window.isExpired(now));
+            if (windows.size() >= maxKeys) {
+                if (!evictLive) {
+                    log.debug("Login limiter holds {} live failure windows - not tracking: {}", maxKeys, key);
+                    return new Window(now + windowMillis);
+                }
+                evictOldest(windows);
+            }
+        }
+        return windows.compute(key, (k, window) -> {
+            Window current = window == null || window.isExpired(now) ? new Window(now + windowMillis) : window;
+            current.count++;
+            return current;
+        });
+    }
+
+    /**
+     * Drops the oldest tenth of the windows (those closest to resetting), so a flood pays for one
+     * scan per batch of new keys rather than per key.
+     */
+    private void evictOldest(Map<String, Window> windows) {
+        long[] resets = windows.values().stream().mapToLong(window -> window.resetAt).sorted().toArray();
+        if (resets.length == 0) {
+            return;
+        }
+        long cutoff = resets[Math.min(resets.length - 1, resets.length / EVICT_FRACTION)];
+        windows.values().removeIf(window -> window.resetAt <= cutoff);
+        log.warn("⚠️  Login limiter reached {} keys - evicted windows resetting before {}", maxKeys, cutoff);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Window {
+        private final long resetAt;
+        private volatile int count;
+
+        private Window(long resetAt) {
+            this.resetAt = resetAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= resetAt;
+        }
+
+        private boolean reached(int limit, long now) {
+            return !isExpired(now) && count >= limit;
+        }
+
+        private long secondsUntilReset(long now) {
+            return Math.max(1, (resetAt - now + 999) / 1000);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.nutritheous.auth;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Revoked access tokens by JWT id. Rows are only needed until the token would have expired.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, UUID> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO revoked_tokens (token_id, user_id, expires_at)
+            VALUES (:tokenId, :userId, :expiresAt)
+            ON CONFLICT (token_id) DO NOTHING
+            """, nativeQuery = true)
+    int insert(@Param("tokenId") UUID tokenId,
+               @Param("userId") UUID userId,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query("SELECT t.tokenId FROM RevokedToken t WHERE t.expiresAt > :now")
+    List<UUID> findActiveTokenIds(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,155 @@
+package com.nutritheous.auth;
+
+import com.nutritheous.common.cache.BloomFilter;
+import com.nutritheous.common.cache.CacheInvalidationBus;
+import com.nutritheous.common.cache.RemoteInvalidationEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens, checked on every authenticated request.
+ *
+ * Revocations live in the revoked_tokens table and in memory as a Bloom filter in front of an
+ * exact map of token id to expiry. {@link #isRevoked(String)} is lock-free and allocation-free:
+ * almost every token is rejected by the filter, and only filter hits consult the exact map.
+ * Other nodes learn about revocations through {@link CacheInvalidationBus}; the table is reloaded
+ * periodically (and after bus reconnects) to catch anything missed and to drop expired entries.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final TransactionTemplate transactionTemplate;
+    private final int expectedEntries;
+    private final long accessTokenTtlSeconds;
+
+    /** Serializes writers with snapshot swaps; readers never lock. */
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+
+    public TokenRevocationService(
+            RevokedTokenRepository revokedTokenRepository,
+            CacheInvalidationBus invalidationBus,
+            TransactionTemplate transactionTemplate,
+            @Value("${auth.revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${jwt.expiration}") long jwtExpirationMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.invalidationBus = invalidationBus;
+        this.transactionTemplate = transactionTemplate;
+        this.expectedEntries = expectedEntries;
+        this.accessTokenTtlSeconds = jwtExpirationMs / 1000;
+        this.snapshot = new Snapshot(expectedEntries);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        return current.filter.mightContain(tokenId) && current.expiries.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes an access token until it expires. Joins the caller's transaction, so other nodes
+     * are only notified once it commits.
+     */
+    @Transactional
+    public void revoke(JwtClaims claims, UUID userId) {
+        if (claims.tokenId() == null || claims.expiresAt() == null) {
+            return;
+        }
+        UUID tokenId = UUID.fromString(claims.tokenId());
+        revokedTokenRepository.insert(tokenId, userId, LocalDateTime.ofInstant(claims.expiresAt(), ZoneId.systemDefault()));
+        invalidationBus.publish(CacheInvalidationBus.TOPIC_REVOCATIONS, tokenId);
+        add(claims.tokenId(), claims.expiresAt().getEpochSecond());
+        log.info("🚫 Revoked access token {} of user {}", tokenId, userId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Drops expired revocations and rebuilds the filter from the table, keeping entries added
+     * locally in the meantime.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.reload-interval-ms:600000}",
+            initialDelayString = "${auth.revocation.reload-interval-ms:600000}")
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> active = transactionTemplate.execute(status -> {
+            revokedTokenRepository.deleteExpired(now);
+            return revokedTokenRepository.findActiveTokenIds(now);
+        });
+
+        long nowEpoch = Instant.now().getEpochSecond();
+        long fallbackExpiry = nowEpoch + accessTokenTtlSeconds;
+        synchronized (writeLock) {
+            Snapshot previous = snapshot;
+            Snapshot next = new Snapshot(Math.max(expectedEntries, 2 * (active.size() + previous.expiries.size())));
+            for (UUID tokenId : active) {
+                next.add(tokenId.toString(), fallbackExpiry);
+            }
+            previous.expiries.forEach((tokenId, expiry) -> {
+                if (expiry > nowEpoch) {
+                    next.add(tokenId, Math.max(expiry, next.expiries.getOrDefault(tokenId, expiry)));
+                }
+            });
+            snapshot = next;
+        }
+        log.debug("Loaded {} revoked access tokens", active.size());
+    }
+
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (!event.topic().equals(CacheInvalidationBus.TOPIC_REVOCATIONS)) {
+            return;
+        }
+        if (event.isFlush()) {
+            reload();
+        } else {
+            // The exact expiry is not in the message; the token cannot outlive one access token lifetime
+            add(event.id().toString(), Instant.now().getEpochSecond() + accessTokenTtlSeconds);
+        }
+    }
+
+    private void add(String tokenId, long expiresAtEpochSecond) {
+        synchronized (writeLock) {
+            snapshot.add(tokenId, expiresAtEpochSecond);
+        }
+    }
+
+    private static final class Snapshot {
+        private final BloomFilter filter;
+        private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+
+        private Snapshot(int capacity) {
+            this.filter = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        }
+
+        private void add(String tokenId, long expiresAtEpochSecond) {
+            // Exact entry first: a filter hit must never find the map without it
+            expiries.put(tokenId, expiresAtEpochSecond);
+            filter.put(tokenId);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.nutritheous.auth;
+
+import java.util.UUID;
+
+/**
+ * Published inside the writing transaction whenever a user's account or profile is updated or deleted,
+ * so that anything caching user details can drop them.
+ */
+public record UserDataChangedEvent(UUID userId) {
+}
@@ -0,0 +1,121 @@
+package com.nutritheous.auth;
+
+import com.nutritheous.common.cache.CacheInvalidationBus;
+import com.nutritheous.common.cache.RemoteInvalidationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of authenticated principals by email, so that JWT-authenticated requests
+ * don't need a users SELECT each.
+ *
+ * Entries are dropped when a {@link UserDataChangedEvent} commits (locally or, via
+ * {@link CacheInvalidationBus}, on another node) and expire after {@code ttl} regardless.
+ */
+@Component
+@Slf4j
+public class UserPrincipalCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Map<String, Entry> entries;
+
+    /** Bumped on every invalidation; a principal loaded across an invalidation is not cached. */
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    public UserPrincipalCache(
+            MeterRegistry meterRegistry,
+            @Value("${auth.principal-cache.enabled:true}") boolean enabled,
+            @Value("${auth.principal-cache.max-size:10000}") int maxSize,
+            @Value("${auth.principal-cache.ttl:PT5M}") Duration ttl) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = meterRegistry.counter("auth.principal.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("auth.principal.cache.requests", "result", "miss");
+        this.invalidations = meterRegistry.counter("auth.principal.cache.invalidations");
+    }
+
+    public User get(String email, Supplier<User> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        long loadGeneration;
+        synchronized (entries) {
+            Entry entry = entries.get(email);
+            if (entry != null && System.nanoTime() - entry.loadedAt <= ttlNanos) {
+                hits.increment();
+                return entry.user;
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        User user = loader.get();
+
+        synchronized (entries) {
+            if (generation == loadGeneration) {
+                entries.put(email, new Entry(user, System.nanoTime()));
+            }
+        }
+        return user;
+    }
+
+    public void invalidate(UUID userId) {
+        synchronized (entries) {
+            generation++;
+            entries.values().removeIf(entry -> entry.user.getId().equals(userId));
+        }
+        invalidations.increment();
+        log.debug("Invalidated cached principal for user {}", userId);
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+        invalidations.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (!event.topic().equals(CacheInvalidationBus.TOPIC_USERS)) {
+            return;
+        }
+        if (event.isFlush()) {
+            invalidateAll();
+        } else {
+            invalidate(event.id());
+        }
+    }
+
+    private record Entry(User user, long loadedAt) {
+    }
+}
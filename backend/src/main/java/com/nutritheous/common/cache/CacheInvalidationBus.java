@@ -0,0 +1,228 @@
+package com.nutritheous.common.cache;
+
+import com.nutritheous.auth.UserDataChangedEvent;
+import com.nutritheous.meal.MealDataChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Cross-node cache invalidation over Postgres LISTEN/NOTIFY.
+ *
+ * Write paths publish {@link MealDataChangedEvent} / {@link UserDataChangedEvent} inside their
+ * transaction; this bus turns them into a pg_notify on the same connection, so Postgres only
+ * delivers the message once the write commits. Every node listens on a dedicated connection
+ * (outside the Hikari pool) and re-publishes messages from other nodes as
+ * {@link RemoteInvalidationEvent}s for local caches to evict.
+ *
+ * If the listener connection drops it reconnects with backoff and asks caches to flush,
+ * since notifications sent in the meantime are lost. A connection that dies silently (NAT or
+ * load balancer idle timeout, failover) raises no error while polling, so it also runs with TCP
+ * keepalive and a socket timeout, and is validated every few idle polls. Caches keep a TTL as
+ * the last line of defence.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    public static final String TOPIC_MEALS = "meals";
+    public static final String TOPIC_USERS = "users";
+    public static final String TOPIC_REVOCATIONS = "revocations";
+
+    private static final String CHANNEL = "nutritheous_cache_invalidation";
+    private static final long MAX_RECONNECT_DELAY_MS = 30000;
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final int pollTimeoutMs;
+    private final int healthCheckPolls;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile boolean running;
+    private volatile Connection listenerConnection;
+    private Thread listenerThread;
+
+    public CacheInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            DataSourceProperties dataSourceProperties,
+            @Value("${cache.invalidation.enabled:true}") boolean enabled,
+            @Value("${cache.invalidation.poll-timeout-ms:5000}") int pollTimeoutMs,
+            @Value("${cache.invalidation.health-check-polls:6}") int healthCheckPolls) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = enabled;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.healthCheckPolls = Math.max(1, healthCheckPolls);
+    }
+
+    @EventListener
+    public void onMealDataChanged(MealDataChangedEvent event) {
+        publish(TOPIC_MEALS, event.userId());
+    }
+
+    @EventListener
+    public void onUserDataChanged(UserDataChangedEvent event) {
+        publish(TOPIC_USERS, event.userId());
+    }
+
+    /**
+     * Sends "topic|id|nodeId". Runs on the caller's transaction, so it is delivered on commit
+     * and discarded on rollback.
+     */
+    public void publish(String topic, UUID id) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL, topic + "|" + id + "|" + nodeId);
+    }
+
+    private void listen() {
+        long reconnectDelay = 1000;
+        boolean missedNotifications = false;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(), listenerConnectionProperties())) {
+                listenerConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("🔔 Listening for cache invalidations on {} (node {})", CHANNEL, nodeId);
+                reconnectDelay = 1000;
+
+                if (missedNotifications) {
+                    flushAll();
+                    missedNotifications = false;
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int idlePolls = 0;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        idlePolls = 0;
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    } else if (++idlePolls >= healthCheckPolls) {
+                        // A dead socket just keeps returning no notifications; a round trip exposes it
+                        idlePolls = 0;
+                        if (!connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS)) {
+                            throw new SQLException("Listener connection failed its health check");
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                missedNotifications = true;
+                log.warn("Cache invalidation listener disconnected, retrying in {} ms: {}",
+                        reconnectDelay, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MS);
+            } finally {
+                listenerConnection = null;
+            }
+        }
+    }
+
+    private Properties listenerConnectionProperties() {
+        Properties properties = new Properties();
+        if (dataSourceProperties.determineUsername() != null) {
+            properties.setProperty("user", dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        properties.setProperty("tcpKeepAlive", "true");
+        // Longer than a poll plus a health check, so only a hung read trips it
+        int socketTimeoutSeconds = (int) Math.ceil(pollTimeoutMs / 1000.0) + 2 * HEALTH_CHECK_TIMEOUT_SECONDS;
+        properties.setProperty("socketTimeout", Integer.toString(socketTimeoutSeconds));
+        properties.setProperty("ApplicationName", "nutritheous-cache-invalidation");
+        return properties;
+    }
+
+    private void handle(String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length != 3) {
+            log.warn("Ignoring malformed cache invalidation: {}", payload);
+            return;
+        }
+        if (nodeId.equals(parts[2])) {
+            // Already evicted locally by the writing node
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(new RemoteInvalidationEvent(parts[0], UUID.fromString(parts[1])));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring cache invalidation with invalid id: {}", payload);
+        } catch (Exception e) {
+            log.error("Failed to apply cache invalidation {}", payload, e);
+        }
+    }
+
+    private void flushAll() {
+        log.info("Flushing local caches after missed invalidations");
+        eventPublisher.publishEvent(new RemoteInvalidationEvent(TOPIC_MEALS, null));
+        eventPublisher.publishEvent(new RemoteInvalidationEvent(TOPIC_USERS, null));
+        eventPublisher.publishEvent(new RemoteInvalidationEvent(TOPIC_REVOCATIONS, null));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            log.info("Cross-node cache invalidation disabled, caches rely on TTL only");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Connection connection = listenerConnection;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.debug("Error closing cache invalidation connection: {}", e.getMessage());
+            }
+        }
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,16 @@
+package com.nutritheous.common.cache;
+
+import java.util.UUID;
+
+/**
+ * Local event raised by {@link CacheInvalidationBus} when another node changed data.
+ * {@code id} is a user id for the meals/users topics and a token id for revocations.
+ * A null {@code id} means "everything": notifications may have been missed, so caches
+ * should drop (or reload) all entries of the topic.
+ */
+public record RemoteInvalidationEvent(String topic, UUID id) {
+
+    public boolean isFlush() {
+        return id == null;
+    }
+}
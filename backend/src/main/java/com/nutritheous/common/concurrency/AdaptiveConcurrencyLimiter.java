@@ -0,0 +1,153 @@
+package com.nutritheous.common.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of requests in flight with a limit that adapts to observed latency, in the
+ * style of TCP congestion control (gradient with an AIMD backoff):
+ * <ul>
+ *   <li>A slow moving average of latency approximates the no-load latency. When a short moving
+ *       average rises above it (queueing somewhere: DB pool, CPU, OpenAI), the limit shrinks by
+ *       that ratio. Comparing two averages rather than single samples keeps a mix of fast and
+ *       slow requests from looking like queueing.</li>
+ *   <li>When latency is at baseline and the limit is actually being used (or is below its initial
+ *       value), it grows by a small queue allowance of about sqrt(limit).</li>
+ *   <li>After a quiet period with nothing in flight, a shrunken limit returns to its initial value.</li>
+ *   <li>Failed requests (5xx, exceptions) cut the limit multiplicatively.</li>
+ *   <li>Other outcomes (4xx) release their slot without touching the limit.</li>
+ * </ul>
+ * Acquiring is a CAS on the in-flight counter; the limit is recomputed on completion.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_WINDOW_SMOOTHING = 0.1;
+    private static final double LONG_WINDOW_SMOOTHING = 0.01;
+    private static final double DRIFT_RATIO = 2.0;
+    private static final double DRIFT_DECAY = 0.95;
+    private static final long IDLE_RESET_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final String name;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    private volatile long lastActivityNanos = System.nanoTime();
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    private final Counter rejected;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double rttTolerance, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.initialLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = this.initialLimit;
+
+        this.rejected = Counter.builder("concurrency.limit.rejected")
+                .tag("group", name)
+                .description("Requests shed because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limit", this, l -> l.limit).tag("group", name).register(meterRegistry);
+        Gauge.builder("concurrency.in_flight", inFlight, AtomicInteger::get).tag("group", name).register(meterRegistry);
+    }
+
+    /**
+     * @return {@code true} if the request may proceed; it must then call exactly one of
+     * {@link #onSuccess(long, int)}, {@link #onDropped()} or {@link #onIgnored()}.
+     */
+    public boolean tryAcquire() {
+        if (limit < initialLimit && inFlight.get() == 0 && System.nanoTime() - lastActivityNanos > IDLE_RESET_NANOS) {
+            resetIfIdle();
+        }
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * @param rttNanos         how long the request took
+     * @param inFlightAtStart  concurrency when it was admitted; the limit only grows if it was in use
+     */
+    public synchronized void onSuccess(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        lastActivityNanos = System.nanoTime();
+
+        shortRttNanos = smooth(shortRttNanos, rttNanos, SHORT_WINDOW_SMOOTHING);
+        longRttNanos = smooth(longRttNanos, rttNanos, LONG_WINDOW_SMOOTHING);
+        // Let the baseline come down once latency has settled, so a past overload does not stay "normal"
+        if (longRttNanos > DRIFT_RATIO * shortRttNanos) {
+            longRttNanos *= DRIFT_DECAY;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, rttTolerance * longRttNanos / shortRttNanos));
+        double current = limit;
+        double target = current * gradient;
+        if (gradient >= 1.0 && (inFlightAtStart >= current / 2 || current < initialLimit)) {
+            target += Math.sqrt(current);
+        }
+        setLimit(current * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING);
+    }
+
+    public synchronized void onDropped() {
+        inFlight.decrementAndGet();
+        lastActivityNanos = System.nanoTime();
+        setLimit(limit * BACKOFF_RATIO);
+    }
+
+    /**
+     * Releases a request whose latency says nothing about load, e.g. a fast 401 or 429;
+     * feeding those into {@link #onSuccess(long, int)} would collapse the latency baseline.
+     */
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * A limit that shrank under load and then saw no traffic carries no information about the
+     * current state; start over from the initial limit and latency estimates.
+     */
+    private synchronized void resetIfIdle() {
+        if (inFlight.get() == 0 && System.nanoTime() - lastActivityNanos > IDLE_RESET_NANOS) {
+            limit = Math.max(limit, initialLimit);
+            shortRttNanos = 0;
+            longRttNanos = 0;
+            lastActivityNanos = System.nanoTime();
+        }
+    }
+
+    private static double smooth(double average, long sample, double smoothing) {
+        return average == 0 ? sample : average * (1 - smoothing) + sample * smoothing;
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
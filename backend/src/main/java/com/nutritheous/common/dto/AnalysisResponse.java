@@ -1,6 +1,8 @@
 package com.nutritheous.common.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.nutritheous.analyzer.TokenUsage;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -51,4 +53,8 @@ public class AnalysisResponse {
     private String healthNotes;
 
     private Double confidence;
+
+    /** Tokens spent producing this analysis; metered, not part of the API. */
+    @JsonIgnore
+    private TokenUsage tokenUsage;
 }
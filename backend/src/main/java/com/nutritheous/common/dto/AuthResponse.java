@@ -14,6 +14,9 @@ import java.util.UUID;
 public class AuthResponse {
 
     private String token;
+    private String refreshToken;
+    /** Access token lifetime in seconds. */
+    private Long expiresIn;
     private String email;
     private String role;
     private UUID userId;
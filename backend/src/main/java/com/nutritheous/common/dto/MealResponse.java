@@ -2,6 +2,7 @@ package com.nutritheous.common.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.nutritheous.meal.Meal;
+import com.nutritheous.meal.dto.MealListItem;
 import com.nutritheous.storage.GoogleCloudStorageService;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -97,4 +98,40 @@ public class MealResponse {
                 .createdAt(meal.getCreatedAt())
                 .build();
     }
+
+    /**
+     * Builds a response from a list projection. Ingredients and allergens are only set when
+     * the list was queried with details; otherwise they are left null.
+     */
+    public static MealResponse fromListItem(MealListItem item, GoogleCloudStorageService storageService) {
+        String imageUrl = "";
+        if (item.objectName() != null) {
+            imageUrl = storageService.getPresignedImageUrl(item.objectName());
+        }
+
+        return MealResponse.builder()
+                .id(item.id())
+                .mealTime(item.mealTime())
+                .mealType(item.mealType())
+                .imageUrl(imageUrl)
+                .objectName(item.objectName())
+                .description(item.description())
+                .servingSize(item.servingSize())
+                .calories(item.calories())
+                .proteinG(item.proteinG())
+                .fatG(item.fatG())
+                .saturatedFatG(item.saturatedFatG())
+                .carbohydratesG(item.carbohydratesG())
+                .fiberG(item.fiberG())
+                .sugarG(item.sugarG())
+                .sodiumMg(item.sodiumMg())
+                .cholesterolMg(item.cholesterolMg())
+                .ingredients(item.ingredients())
+                .allergens(item.allergens())
+                .healthNotes(item.healthNotes())
+                .confidence(item.confidence())
+                .analysisStatus(item.analysisStatus())
+                .createdAt(item.createdAt())
+                .build();
+    }
 }
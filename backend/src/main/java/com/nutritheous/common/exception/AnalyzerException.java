@@ -1,11 +1,26 @@
 package com.nutritheous.common.exception;
 
+import com.nutritheous.analyzer.TokenUsage;
+
 public class AnalyzerException extends RuntimeException {
+
+    /** Tokens already spent when the analysis failed (e.g. an unparseable answer), if any. */
+    private final TokenUsage tokenUsage;
+
     public AnalyzerException(String message) {
-        super(message);
+        this(message, null, null);
     }
 
     public AnalyzerException(String message, Throwable cause) {
+        this(message, cause, null);
+    }
+
+    public AnalyzerException(String message, Throwable cause, TokenUsage tokenUsage) {
         super(message, cause);
+        this.tokenUsage = tokenUsage;
+    }
+
+    public TokenUsage getTokenUsage() {
+        return tokenUsage;
     }
 }
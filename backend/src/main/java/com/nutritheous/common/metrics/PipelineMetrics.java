@@ -0,0 +1,71 @@
+package com.nutritheous.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers, spans and counters for the meal pipeline, from reading the upload to saving the
+ * analysis. Every stage is an observation named {@code meal.pipeline.stage}: it is recorded as a
+ * timer tagged with stage and outcome (histogram configured in application.properties) and, when
+ * tracing is on, as a child span of the current request.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String MULTIPART_READ = "multipart_read";
+    public static final String IMAGE_COMPRESS = "image_compress";
+    public static final String GCS_UPLOAD = "gcs_upload";
+    public static final String URL_SIGNING = "url_signing";
+    public static final String IMAGE_DOWNLOAD = "image_download";
+    public static final String IMAGE_PROCESS = "image_process";
+    public static final String OPENAI_CALL = "openai_call";
+    public static final String JSON_PARSE = "json_parse";
+    public static final String DB_SAVE = "db_save";
+
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    public PipelineMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+    }
+
+    /**
+     * Runs one stage as an observation, tagged with whether it threw.
+     */
+    public <T, E extends Exception> T time(String stage, StageCall<T, E> call) throws E {
+        Observation observation = Observation.createNotStarted("meal.pipeline.stage", observationRegistry)
+                .contextualName(stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .start();
+        String outcome = "error";
+        // The scope makes the stage the current observation, so spans opened by the call nest under it
+        Observation.Scope scope = observation.openScope();
+        try {
+            T result = call.call();
+            outcome = "success";
+            return result;
+        } catch (Exception e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            scope.close();
+            observation.lowCardinalityKeyValue("outcome", outcome);
+            observation.stop();
+        }
+    }
+
+    /**
+     * Counts how analyses end: completed, failed or skipped (nothing to analyze).
+     */
+    public void recordAnalysisOutcome(String outcome) {
+        meterRegistry.counter("meal.analysis.outcome", "outcome", outcome).increment();
+    }
+
+    @FunctionalInterface
+    public interface StageCall<T, E extends Exception> {
+        T call() throws E;
+    }
+}
@@ -0,0 +1,81 @@
+package com.nutritheous.common.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-node buckets. Global buckets are striped: the limit is split over several independent
+ * buckets and each request takes from a random one, so concurrent requests rarely contend on the
+ * same CAS. The stripes' capacities add up to the limit, and a limit smaller than the stripe count
+ * is not striped at all. A request can be refused by its stripe while another still has tokens,
+ * which only errs on the side of admitting slightly less than the limit at its edge.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private final int globalStripes;
+    private final int maxKeys;
+    private final Map<String, TokenBucket[]> buckets = new ConcurrentHashMap<>();
+
+    public InMemoryRateLimiter(
+            @Value("${rate-limit.global-stripes:8}") int globalStripes,
+            @Value("${rate-limit.max-keys:100000}") int maxKeys) {
+        this.globalStripes = Math.max(1, globalStripes);
+        this.maxKeys = maxKeys;
+    }
+
+    @Override
+    public Duration tryAcquire(String key, RateLimitPolicy policy, boolean global) {
+        long now = System.nanoTime();
+        // Every stripe needs at least one token, or the stripes together would admit more than the limit
+        int stripes = global ? Math.min(globalStripes, policy.capacity()) : 1;
+
+        TokenBucket[] stripeBuckets = buckets.get(key);
+        if (stripeBuckets == null) {
+            if (buckets.size() >= maxKeys) {
+                evictFull();
+            }
+            stripeBuckets = buckets.computeIfAbsent(key, k -> newBuckets(stripes, now));
+        }
+
+        int count = stripeBuckets.length;
+        int stripe = count == 1 ? 0 : ThreadLocalRandom.current().nextInt(count);
+        RateLimitPolicy stripePolicy = count == 1 ? policy : policy.stripe(stripe, count);
+        long waitNanos = stripeBuckets[stripe].tryAcquire(stripePolicy, now);
+        return waitNanos == 0 ? Duration.ZERO : Duration.ofNanos(waitNanos);
+    }
+
+    /**
+     * Full buckets hold no information (a new bucket starts full), so dropping them is free.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictFull() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(stripeBuckets -> {
+            for (TokenBucket bucket : stripeBuckets) {
+                if (!bucket.isFull(now)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private static TokenBucket[] newBuckets(int stripes, long now) {
+        TokenBucket[] stripeBuckets = new TokenBucket[stripes];
+        for (int i = 0; i < stripes; i++) {
+            stripeBuckets[i] = new TokenBucket(now);
+        }
+        return stripeBuckets;
+    }
+}
@@ -0,0 +1,75 @@
+package com.nutritheous.common.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Buckets shared by all nodes in the rate_limit_buckets table. Each attempt is one upsert that
+ * only advances the bucket when a token is available, against the database clock so that node
+ * clock skew does not matter. Costs a round trip per request, so use it when the limits must hold
+ * across nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.store", havingValue = "postgres")
+@Slf4j
+public class PostgresRateLimiter implements RateLimiter {
+
+    private static final String NOW_MICROS = "(EXTRACT(EPOCH FROM clock_timestamp()) * 1000000)::BIGINT";
+
+    private static final String ACQUIRE_SQL = """
+            INSERT INTO rate_limit_buckets AS b (bucket_key, tat_micros)
+            VALUES (:key, %s + :interval)
+            ON CONFLICT (bucket_key) DO UPDATE
+                SET tat_micros = GREATEST(b.tat_micros, EXCLUDED.tat_micros - :interval) + :interval
+                WHERE GREATEST(b.tat_micros, EXCLUDED.tat_micros - :interval) + :interval - :tolerance
+                      <= EXCLUDED.tat_micros - :interval
+            RETURNING tat_micros
+            """.formatted(NOW_MICROS);
+
+    private static final String WAIT_SQL = """
+            SELECT tat_micros + :interval - :tolerance - %s FROM rate_limit_buckets WHERE bucket_key = :key
+            """.formatted(NOW_MICROS);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PostgresRateLimiter(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        log.info("🚦 Rate limits are shared across nodes through PostgreSQL");
+    }
+
+    @Override
+    public Duration tryAcquire(String key, RateLimitPolicy policy, boolean global) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("key", key)
+                .addValue("interval", Math.max(1, policy.emissionIntervalNanos() / 1000))
+                .addValue("tolerance", policy.burstToleranceNanos() / 1000);
+
+        List<Long> admitted = jdbcTemplate.queryForList(ACQUIRE_SQL, params, Long.class);
+        if (!admitted.isEmpty()) {
+            return Duration.ZERO;
+        }
+
+        List<Long> waitMicros = jdbcTemplate.queryForList(WAIT_SQL, params, Long.class);
+        long wait = waitMicros.isEmpty() ? 0 : waitMicros.get(0);
+        return Duration.ofNanos(Math.max(1, wait) * 1000);
+    }
+
+    /**
+     * Deletes buckets that have refilled completely; a missing bucket behaves the same.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.cleanup-interval-ms:300000}")
+    public void deleteFullBuckets() {
+        int deleted = jdbcTemplate.getJdbcTemplate().update(
+                "DELETE FROM rate_limit_buckets WHERE tat_micros < " + NOW_MICROS);
+        if (deleted > 0) {
+            log.debug("Deleted {} refilled rate limit buckets", deleted);
+        }
+    }
+}
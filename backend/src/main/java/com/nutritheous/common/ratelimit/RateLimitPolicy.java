@@ -0,0 +1,41 @@
+package com.nutritheous.common.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Allows bursts of up to {@code capacity} requests, refilled evenly at {@code capacity} per
+ * {@code period}.
+ */
+public record RateLimitPolicy(int capacity, Duration period) {
+
+    public RateLimitPolicy {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity must be positive");
+        }
+        if (period.isZero() || period.isNegative()) {
+            throw new IllegalArgumentException("Rate limit period must be positive");
+        }
+    }
+
+    /** Time for one token to refill, in nanoseconds. */
+    public long emissionIntervalNanos() {
+        return Math.max(1, period.toNanos() / capacity);
+    }
+
+    /** How far ahead of now the bucket may be booked; a full bucket allows {@code capacity} requests at once. */
+    public long burstToleranceNanos() {
+        return emissionIntervalNanos() * capacity;
+    }
+
+    /**
+     * The share of this policy for stripe {@code index} of {@code stripes} independent buckets.
+     * The remainder of the division goes one token each to the first stripes, so the shares add up
+     * to exactly {@code capacity}. Requires {@code stripes <= capacity}.
+     */
+    public RateLimitPolicy stripe(int index, int stripes) {
+        if (stripes > capacity) {
+            throw new IllegalArgumentException("Cannot split a capacity of " + capacity + " over " + stripes + " stripes");
+        }
+        return new RateLimitPolicy(capacity / stripes + (index < capacity % stripes ? 1 : 0), period);
+    }
+}
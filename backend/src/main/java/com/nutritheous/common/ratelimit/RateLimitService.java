@@ -0,0 +1,87 @@
+package com.nutritheous.common.ratelimit;
+
+import com.nutritheous.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Limits for endpoints that spend OpenAI quota: meal upload (per user) and the analyzer debug
+ * endpoint (per client IP, since it is unauthenticated), each also under a global limit.
+ * The caller's own bucket is checked first, so one noisy client is refused before it can drain
+ * the global bucket for everyone else.
+ */
+@Service
+@Slf4j
+public class RateLimitService {
+
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final RateLimitPolicy uploadPerUser;
+    private final RateLimitPolicy uploadGlobal;
+    private final RateLimitPolicy analyzerPerClient;
+    private final RateLimitPolicy analyzerGlobal;
+
+    public RateLimitService(
+            RateLimiter rateLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.enabled:true}") boolean enabled,
+            @Value("${rate-limit.upload.per-user.capacity:10}") int uploadPerUserCapacity,
+            @Value("${rate-limit.upload.per-user.period:PT1M}") Duration uploadPerUserPeriod,
+            @Value("${rate-limit.upload.global.capacity:300}") int uploadGlobalCapacity,
+            @Value("${rate-limit.upload.global.period:PT1M}") Duration uploadGlobalPeriod,
+            @Value("${rate-limit.analyzer.per-client.capacity:5}") int analyzerPerClientCapacity,
+            @Value("${rate-limit.analyzer.per-client.period:PT1M}") Duration analyzerPerClientPeriod,
+            @Value("${rate-limit.analyzer.global.capacity:30}") int analyzerGlobalCapacity,
+            @Value("${rate-limit.analyzer.global.period:PT1M}") Duration analyzerGlobalPeriod) {
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.uploadPerUser = new RateLimitPolicy(uploadPerUserCapacity, uploadPerUserPeriod);
+        this.uploadGlobal = new RateLimitPolicy(uploadGlobalCapacity, uploadGlobalPeriod);
+        this.analyzerPerClient = new RateLimitPolicy(analyzerPerClientCapacity, analyzerPerClientPeriod);
+        this.analyzerGlobal = new RateLimitPolicy(analyzerGlobalCapacity, analyzerGlobalPeriod);
+    }
+
+    /**
+     * @throws TooManyRequestsException if the user or all users together are over the upload limit
+     */
+    public void checkUpload(String userId) {
+        check("upload", "upload:user:" + userId, uploadPerUser, "upload:global", uploadGlobal);
+    }
+
+    /**
+     * @throws TooManyRequestsException if the client or all clients together are over the analyzer limit
+     */
+    public void checkAnalyzer(String clientIp) {
+        check("analyzer", "analyzer:ip:" + clientIp, analyzerPerClient, "analyzer:global", analyzerGlobal);
+    }
+
+    private void check(String endpoint, String clientKey, RateLimitPolicy clientPolicy,
+                       String globalKey, RateLimitPolicy globalPolicy) {
+        if (!enabled) {
+            return;
+        }
+        Duration wait = rateLimiter.tryAcquire(clientKey, clientPolicy, false);
+        if (!wait.isZero()) {
+            reject(endpoint, "client", wait);
+        }
+        wait = rateLimiter.tryAcquire(globalKey, globalPolicy, true);
+        if (!wait.isZero()) {
+            reject(endpoint, "global", wait);
+        }
+    }
+
+    private void reject(String endpoint, String scope, Duration wait) {
+        meterRegistry.counter("rate_limit.rejected", "endpoint", endpoint, "scope", scope).increment();
+        long retryAfterSeconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+        log.warn("🚦 Rate limited {} ({} limit) - retry after {}s", endpoint, scope, retryAfterSeconds);
+        throw new TooManyRequestsException(scope.equals("global")
+                ? "The service is busy, please try again later"
+                : "Too many requests, please slow down", retryAfterSeconds);
+    }
+}
@@ -0,0 +1,16 @@
+package com.nutritheous.common.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Takes one token from a named bucket.
+ */
+public interface RateLimiter {
+
+    /**
+     * @param key bucket name, e.g. {@code upload:user:<id>}
+     * @param global whether the bucket is shared by all callers (and so the hottest one)
+     * @return {@link Duration#ZERO} if admitted, otherwise how long until a token is available
+     */
+    Duration tryAcquire(String key, RateLimitPolicy policy, boolean global);
+}
@@ -0,0 +1,42 @@
+package com.nutritheous.common.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one "theoretical arrival time"
+ * that each admitted request pushes forward by one emission interval. A request is admitted
+ * while that time stays within the burst tolerance of now, so acquiring is a single CAS and
+ * the time to wait falls out directly when it is not.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanoseconds until one will be available
+     */
+    long tryAcquire(RateLimitPolicy policy, long nowNanos) {
+        long interval = policy.emissionIntervalNanos();
+        long tolerance = policy.burstToleranceNanos();
+        while (true) {
+            long tat = theoreticalArrivalNanos.get();
+            long next = Math.max(tat, nowNanos) + interval;
+            long wait = next - tolerance - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Whether the bucket has refilled completely, i.e. forgetting it changes nothing. */
+    boolean isFull(long nowNanos) {
+        return theoreticalArrivalNanos.get() <= nowNanos;
+    }
+}
@@ -0,0 +1,102 @@
+package com.nutritheous.config;
+
+import com.nutritheous.common.concurrency.AdaptiveConcurrencyLimiter;
+import com.nutritheous.common.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Sheds load on meal upload with an {@link AdaptiveConcurrencyLimiter}, before authentication and
+ * before the multipart body is read. Everything else, e.g. {@code GET /api/meals/{id}}, is not
+ * limited here and keeps its share of threads and connections during peaks. Statistics are
+ * limited inside {@code StatisticsCache}, on cache misses only: mixing microsecond hits with
+ * millisecond misses would read as queueing.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter uploadLimiter;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public ConcurrencyLimitFilter(
+            @Value("${concurrency-limit.enabled:true}") boolean enabled,
+            @Value("${concurrency-limit.upload.initial:20}") int uploadInitial,
+            @Value("${concurrency-limit.upload.max:100}") int uploadMax,
+            @Value("${concurrency-limit.min:2}") int minLimit,
+            @Value("${concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.uploadLimiter = new AdaptiveConcurrencyLimiter(
+                "upload", uploadInitial, minLimit, uploadMax, rttTolerance, meterRegistry);
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled || limiterFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = limiterFor(request);
+        int inFlightAtStart = limiter.inFlight();
+
+        if (!limiter.tryAcquire()) {
+            log.warn("🛑 Shedding {} {} - {} concurrency limit reached",
+                    request.getMethod(), request.getRequestURI(), limiter.getName());
+            if (request.getContentLengthLong() > 0) {
+                // Do not make the container read an upload body we are refusing
+                response.setHeader(HttpHeaders.CONNECTION, "close");
+            }
+            handlerExceptionResolver.resolveException(request, response, null,
+                    new ServiceUnavailableException("Server is busy, please retry shortly", RETRY_AFTER_SECONDS));
+            return;
+        }
+
+        long start = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            if (status >= 200 && status < 300) {
+                limiter.onSuccess(System.nanoTime() - start, inFlightAtStart + 1);
+            } else if (status >= 500) {
+                limiter.onDropped();
+            } else {
+                // Fast rejections (401, 429 from RateLimitFilter, 400) are not latency samples
+                limiter.onIgnored();
+            }
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if ("POST".equals(request.getMethod()) && path.equals(RateLimitFilter.UPLOAD_PATH)) {
+            return uploadLimiter;
+        }
+        return null;
+    }
+}
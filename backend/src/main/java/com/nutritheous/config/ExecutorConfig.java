@@ -0,0 +1,72 @@
+package com.nutritheous.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Dedicated executors for background work that must not run on Tomcat request threads.
+ * Tasks carry the submitter's context (trace, MDC) onto the worker thread.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Runs bulk meal deletions and account purges. Kept small on purpose: each job already
+     * works in batches, and running many at once would only compete for DB connections.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mealDeletionExecutor(
+            @Value("${meal.deletion.threads:2}") int threads,
+            @Value("${meal.deletion.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("meal-deletion-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Runs BCrypt hashing for login and registration. BCrypt is CPU-bound by design, so the pool
+     * is sized to a share of the cores and the queue is short: when it is full, callers get a
+     * fast 503 instead of tying up request threads and starving every other endpoint.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${auth.password-hashing.threads:2}") int threads,
+            @Value("${auth.password-hashing.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Worker threads for analyzer calls. Which call runs next is decided by AnalyzerScheduler,
+     * which never hands over more calls than there are threads; the queue only absorbs the
+     * moment between a call finishing and its thread returning to the pool.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor analyzerExecutor(@Value("${analyzer.scheduler.workers:8}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("analyzer-");
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,6 +1,10 @@
 package com.nutritheous.config;
 
+import com.nutritheous.auth.JwtClaims;
 import com.nutritheous.auth.JwtService;
+import com.nutritheous.auth.TokenRevocationService;
+import com.nutritheous.auth.User;
+import com.nutritheous.auth.UserPrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,6 +32,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -52,14 +62,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         log.debug("🎫 Found Bearer token (length: {} chars) for: {}", jwt.length(), requestPath);
 
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // Signature and expiry are verified once; everything below reuses the parsed claims
+            JwtClaims claims = jwtService.verify(jwt);
+            userEmail = claims.subject();
             log.debug("📧 Extracted email from token: {}", userEmail);
 
+            if (tokenRevocationService.isRevoked(claims.tokenId())) {
+                log.warn("🚫 Rejected revoked token for: {}", userEmail);
+                filterChain.doFilter(request, response);
+                return;
+            }
+
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                // Served from memory on the hot path; a users SELECT only on a cache miss
+                UserDetails userDetails = userPrincipalCache.get(userEmail,
+                        () -> (User) this.userDetailsService.loadUserByUsername(userEmail));
                 log.debug("👤 Loaded user details for: {}", userEmail);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
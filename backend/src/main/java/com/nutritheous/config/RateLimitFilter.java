@@ -0,0 +1,69 @@
+package com.nutritheous.config;
+
+import com.nutritheous.auth.User;
+import com.nutritheous.common.exception.TooManyRequestsException;
+import com.nutritheous.common.ratelimit.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+/**
+ * Applies {@link RateLimitService} to the endpoints that call the analyzer. Runs right after JWT
+ * authentication, before the multipart body is parsed, so refused uploads cost almost nothing.
+ * Refusals go through the regular exception handler (429 with Retry-After).
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String UPLOAD_PATH = "/api/meals/upload";
+    static final String ANALYZER_PATH = "/api/debug/test-analyzer";
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    @Autowired
+    @Qualifier("handlerExceptionResolver")
+    private HandlerExceptionResolver handlerExceptionResolver;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !"POST".equals(request.getMethod())
+                || !(path.equals(UPLOAD_PATH) || path.equals(ANALYZER_PATH));
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        try {
+            if (request.getRequestURI().equals(UPLOAD_PATH)) {
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                // Unauthenticated uploads are refused by security right after this filter
+                if (authentication != null && authentication.getPrincipal() instanceof User user) {
+                    rateLimitService.checkUpload(user.getId().toString());
+                }
+            } else {
+                rateLimitService.checkAnalyzer(request.getRemoteAddr());
+            }
+        } catch (TooManyRequestsException e) {
+            handlerExceptionResolver.resolveException(request, response, null, e);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,32 @@
+package com.nutritheous.config;
+
+import com.nutritheous.common.metrics.PipelineMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+
+/**
+ * The standard multipart resolver, timed: resolving is where the container reads the upload
+ * body, which is the first stage of the meal pipeline. Registered as "multipartResolver" so it
+ * replaces the auto-configured one.
+ */
+@Component("multipartResolver")
+public class TimedMultipartResolver extends StandardServletMultipartResolver {
+
+    private final PipelineMetrics pipelineMetrics;
+
+    public TimedMultipartResolver(
+            PipelineMetrics pipelineMetrics,
+            @Value("${spring.servlet.multipart.resolve-lazily:false}") boolean resolveLazily) {
+        this.pipelineMetrics = pipelineMetrics;
+        setResolveLazily(resolveLazily);
+    }
+
+    @Override
+    public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+        return pipelineMetrics.time(PipelineMetrics.MULTIPART_READ, () -> super.resolveMultipart(request));
+    }
+}
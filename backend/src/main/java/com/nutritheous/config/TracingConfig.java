@@ -0,0 +1,22 @@
+package com.nutritheous.config;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Span export. OTLP is auto-configured by Spring Boot once MANAGEMENT_OTLP_TRACING_ENDPOINT is set
+ * (e.g. http://localhost:4318/v1/traces for a local collector); the logging exporter writes every
+ * finished span to the application log, which needs no collector at all.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.logging-exporter.enabled", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
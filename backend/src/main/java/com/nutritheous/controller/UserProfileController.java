@@ -3,10 +3,14 @@ package com.nutritheous.controller;
 import com.nutritheous.auth.User;
 import com.nutritheous.dto.UserProfileRequest;
 import com.nutritheous.dto.UserProfileResponse;
+import com.nutritheous.meal.MealDeletionJob;
+import com.nutritheous.meal.MealDeletionService;
+import com.nutritheous.meal.dto.DeletionJobResponse;
 import com.nutritheous.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserProfileController {
 
     private final UserService userService;
+    private final MealDeletionService mealDeletionService;
 
     /**
      * Get current user's profile.
@@ -61,4 +66,25 @@ public class UserProfileController {
 
         return ResponseEntity.ok(updatedProfile);
     }
+
+    /**
+     * Delete current user's account, including all meals and meal images.
+     * The purge completes before the response, since the deleted account can no longer poll a job;
+     * images are removed from storage shortly afterwards.
+     *
+     * @param user Authenticated user from JWT token
+     * @return Finished purge job; FAILED (with HTTP 500) leaves the account in place for a retry
+     */
+    @DeleteMapping("/profile")
+    public ResponseEntity<DeletionJobResponse> deleteAccount(
+            @AuthenticationPrincipal User user) {
+
+        log.info("DELETE /api/users/profile - User: {}", user.getId());
+
+        DeletionJobResponse job = mealDeletionService.purgeAccount(user.getId());
+        if (job.getStatus() != MealDeletionJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(job);
+        }
+        return ResponseEntity.ok(job);
+    }
 }
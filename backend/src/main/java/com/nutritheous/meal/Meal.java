@@ -86,6 +86,15 @@ public class Meal {
     @Column
     private Double confidence;
 
+    @Column(name = "ai_model", length = 100)
+    private String aiModel;
+
+    @Column(name = "prompt_tokens")
+    private Integer promptTokens;
+
+    @Column(name = "completion_tokens")
+    private Integer completionTokens;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "analysis_status", length = 20)
     @Builder.Default
@@ -2,6 +2,9 @@ package com.nutritheous.meal;
 
 import com.nutritheous.auth.User;
 import com.nutritheous.common.dto.MealResponse;
+import com.nutritheous.meal.dto.DeletionJobResponse;
+import com.nutritheous.meal.dto.MealBulkDeleteRequest;
+import com.nutritheous.meal.dto.MealPage;
 import com.nutritheous.meal.dto.MealUpdateRequest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -28,9 +31,14 @@ import java.util.UUID;
 @Slf4j
 public class MealController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private MealService mealService;
 
+    @Autowired
+    private MealDeletionService mealDeletionService;
+
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Upload meal", description = "Upload a food image and/or description for nutritional analysis. Either image or description (or both) is required.")
     public ResponseEntity<MealResponse> uploadMeal(
@@ -75,39 +83,52 @@ public class MealController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all user meals", description = "Retrieve all meals for the authenticated user")
+    @Operation(summary = "Get user meals", description = "Retrieve the authenticated user's meals, newest first. "
+            + "Without cursor and limit every meal is returned. With either, one page is returned; "
+            + "pass the X-Next-Cursor response header back as cursor to fetch the next page; the header is absent on the last page. "
+            + "Pass includeDetails=false to omit ingredients and allergens.")
     public ResponseEntity<List<MealResponse>> getUserMeals(
-            @AuthenticationPrincipal User user
+            @AuthenticationPrincipal User user,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "includeDetails", defaultValue = "true") boolean includeDetails
     ) {
-        log.info("📋 Fetching all meals for user: {}", user.getEmail());
+        log.info("📋 Fetching meals for user: {}", user.getEmail());
 
-        List<MealResponse> meals = mealService.getUserMeals(user.getId());
+        MealPage page = mealService.getUserMeals(user.getId(), cursor, limit, includeDetails);
 
-        log.info("✅ Retrieved {} meals for user: {}", meals.size(), user.getEmail());
+        log.info("✅ Retrieved {} meals for user: {}, has more: {}",
+                page.getMeals().size(), user.getEmail(), page.getNextCursor() != null);
         log.info("📊 Each meal response contains fresh signed URLs (valid for 24 hours)");
 
-        return ResponseEntity.ok(meals);
+        return toPageResponse(page);
     }
 
     @GetMapping("/range")
-    @Operation(summary = "Get meals by date range", description = "Retrieve meals within a specific date range")
+    @Operation(summary = "Get meals by date range", description = "Retrieve meals within a specific date range, paginated like GET /api/meals")
     public ResponseEntity<List<MealResponse>> getMealsByDateRange(
             @AuthenticationPrincipal User user,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "includeDetails", defaultValue = "true") boolean includeDetails
     ) {
-        List<MealResponse> meals = mealService.getUserMealsByDateRange(user.getId(), startDate, endDate);
-        return ResponseEntity.ok(meals);
+        MealPage page = mealService.getUserMealsByDateRange(user.getId(), startDate, endDate, cursor, limit, includeDetails);
+        return toPageResponse(page);
     }
 
     @GetMapping("/type/{mealType}")
-    @Operation(summary = "Get meals by type", description = "Retrieve meals filtered by meal type")
+    @Operation(summary = "Get meals by type", description = "Retrieve meals filtered by meal type, paginated like GET /api/meals")
     public ResponseEntity<List<MealResponse>> getMealsByType(
             @AuthenticationPrincipal User user,
-            @PathVariable Meal.MealType mealType
+            @PathVariable Meal.MealType mealType,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "includeDetails", defaultValue = "true") boolean includeDetails
     ) {
-        List<MealResponse> meals = mealService.getUserMealsByType(user.getId(), mealType);
-        return ResponseEntity.ok(meals);
+        MealPage page = mealService.getUserMealsByType(user.getId(), mealType, cursor, limit, includeDetails);
+        return toPageResponse(page);
     }
 
     @PutMapping("/{mealId}")
@@ -130,4 +151,32 @@ public class MealController {
         mealService.deleteMeal(mealId, user.getId());
         return ResponseEntity.noContent().build();
     }
+
+    @PostMapping("/bulk-delete")
+    @Operation(summary = "Bulk delete meals", description = "Delete meals by ID list or meal time range. Runs in the background; poll the returned job for progress.")
+    public ResponseEntity<DeletionJobResponse> bulkDeleteMeals(
+            @AuthenticationPrincipal User user,
+            @Valid @RequestBody MealBulkDeleteRequest request
+    ) {
+        log.info("🗑️  Bulk delete requested - User: {}, By IDs: {}", user.getEmail(), request.isByIds());
+        DeletionJobResponse response = mealDeletionService.startBulkDelete(user.getId(), request);
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @GetMapping("/deletion-jobs/{jobId}")
+    @Operation(summary = "Get deletion job progress", description = "Retrieve the progress of a bulk delete or account purge job")
+    public ResponseEntity<DeletionJobResponse> getDeletionJob(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID jobId
+    ) {
+        return ResponseEntity.ok(mealDeletionService.getJob(jobId, user.getId()));
+    }
+
+    private ResponseEntity<List<MealResponse>> toPageResponse(MealPage page) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return builder.body(page.getMeals());
+    }
 }
@@ -0,0 +1,48 @@
+package com.nutritheous.meal;
+
+import com.nutritheous.common.exception.BadRequestException;
+import com.nutritheous.meal.dto.MealListItem;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset pagination position in a (meal_time DESC, id DESC) ordered meal list.
+ * Clients only ever see the opaque URL-safe Base64 form.
+ */
+public record MealCursor(LocalDateTime mealTime, UUID id) {
+
+    /**
+     * Position before the first meal: greater than any real (meal_time, id) pair,
+     * so the same keyset query serves the first page and every following one.
+     */
+    public static final MealCursor FIRST = new MealCursor(
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            new UUID(-1L, -1L));
+
+    public static MealCursor after(MealListItem meal) {
+        return new MealCursor(meal.mealTime(), meal.id());
+    }
+
+    public static MealCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new MealCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = mealTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,11 @@
+package com.nutritheous.meal;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a user's meals are inserted, updated or deleted.
+ * Publish it inside the writing transaction; listeners that derive data from meals
+ * (e.g. statistics caches) react after the transaction commits.
+ */
+public record MealDataChangedEvent(UUID userId) {
+}
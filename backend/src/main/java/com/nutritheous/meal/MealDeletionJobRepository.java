@@ -0,0 +1,75 @@
+package com.nutritheous.meal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface MealDeletionJobRepository extends JpaRepository<MealDeletionJob, UUID> {
+
+    Optional<MealDeletionJob> findByIdAndUserId(UUID id, UUID userId);
+
+    /**
+     * Adds one committed batch to the job's counters. Runs in the batch's own transaction.
+     */
+    @Modifying
+    @Query("""
+            UPDATE MealDeletionJob j
+            SET j.mealsDeleted = j.mealsDeleted + :mealsDeleted,
+                j.imagesQueued = j.imagesQueued + :imagesQueued,
+                j.updatedAt = :now
+            WHERE j.id = :jobId
+            """)
+    int addProgress(@Param("jobId") UUID jobId,
+                    @Param("mealsDeleted") long mealsDeleted,
+                    @Param("imagesQueued") long imagesQueued,
+                    @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MealDeletionJob j SET j.status = :status, j.updatedAt = :now WHERE j.id = :jobId")
+    int updateStatus(@Param("jobId") UUID jobId,
+                     @Param("status") MealDeletionJob.Status status,
+                     @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE MealDeletionJob j
+            SET j.status = :status, j.error = :error, j.updatedAt = :now, j.finishedAt = :now
+            WHERE j.id = :jobId
+            """)
+    int finish(@Param("jobId") UUID jobId,
+               @Param("status") MealDeletionJob.Status status,
+               @Param("error") String error,
+               @Param("now") LocalDateTime now);
+
+    /**
+     * Fails unfinished jobs whose node stopped updating them, e.g. after a restart or crash.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE MealDeletionJob j
+            SET j.status = com.nutritheous.meal.MealDeletionJob.Status.FAILED,
+                j.error = :error, j.updatedAt = :now, j.finishedAt = :now
+            WHERE j.status IN (com.nutritheous.meal.MealDeletionJob.Status.QUEUED,
+                               com.nutritheous.meal.MealDeletionJob.Status.RUNNING)
+              AND j.updatedAt < :cutoff
+            """)
+    int failStale(@Param("cutoff") LocalDateTime cutoff,
+                  @Param("error") String error,
+                  @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM MealDeletionJob j WHERE j.finishedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,239 @@
+package com.nutritheous.meal;
+
+import com.nutritheous.auth.UserDataChangedEvent;
+import com.nutritheous.auth.UserRepository;
+import com.nutritheous.common.exception.ResourceNotFoundException;
+import com.nutritheous.common.exception.ServiceUnavailableException;
+import com.nutritheous.meal.dto.DeletionJobResponse;
+import com.nutritheous.meal.dto.MealBulkDeleteRequest;
+import com.nutritheous.statistics.DailyNutritionService;
+import com.nutritheous.storage.StorageDeletionTaskRepository;
+import com.nutritheous.storage.StorageReconciliationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Bulk meal deletion and account purge.
+ *
+ * Jobs delete meals in short, batch-sized transactions:
+ * each batch subtracts the meals from the daily_nutrition rollup, queues their images into
+ * storage_deletion_queue with one INSERT ... SELECT and then removes the rows with one set-based DELETE. Images are removed afterwards through the
+ * GCS batch API by {@link StorageReconciliationService}.
+ *
+ * Job progress lives in meal_deletion_jobs, so a poll answered by any node sees it. Bulk deletions
+ * run on a dedicated executor; an account purge runs on the request thread and returns its final
+ * status, because once the account is gone its owner can no longer authenticate to poll.
+ */
+@Service
+public class MealDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MealDeletionService.class);
+
+    private final MealRepository mealRepository;
+    private final UserRepository userRepository;
+    private final MealDeletionJobRepository jobRepository;
+    private final StorageDeletionTaskRepository deletionTaskRepository;
+    private final StorageReconciliationService storageReconciliationService;
+    private final DailyNutritionService dailyNutritionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskExecutor executor;
+    private final int batchSize;
+    private final Duration jobRetention;
+    private final Duration staleJobTimeout;
+
+    public MealDeletionService(
+            MealRepository mealRepository,
+            UserRepository userRepository,
+            MealDeletionJobRepository jobRepository,
+            StorageDeletionTaskRepository deletionTaskRepository,
+            StorageReconciliationService storageReconciliationService,
+            DailyNutritionService dailyNutritionService,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Qualifier("mealDeletionExecutor") TaskExecutor executor,
+            @Value("${meal.deletion.batch-size:300}") int batchSize,
+            @Value("${meal.deletion.job-retention:PT24H}") Duration jobRetention,
+            @Value("${meal.deletion.stale-job-timeout:PT30M}") Duration staleJobTimeout) {
+        this.mealRepository = mealRepository;
+        this.userRepository = userRepository;
+        this.jobRepository = jobRepository;
+        this.deletionTaskRepository = deletionTaskRepository;
+        this.storageReconciliationService = storageReconciliationService;
+        this.dailyNutritionService = dailyNutritionService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.jobRetention = jobRetention;
+        this.staleJobTimeout = staleJobTimeout;
+    }
+
+    /**
+     * Starts deleting the selected meals of a user in the background.
+     */
+    public DeletionJobResponse startBulkDelete(UUID userId, MealBulkDeleteRequest request) {
+        MealDeletionJob job = createJob(userId, MealDeletionJob.Type.MEALS);
+
+        Supplier<List<UUID>> nextBatch;
+        if (request.isByIds()) {
+            Iterator<List<UUID>> chunks = partition(request.getMealIds()).iterator();
+            // Ownership is enforced by the query: IDs of other users' meals are silently skipped
+            nextBatch = () -> chunks.hasNext()
+                    ? mealRepository.findIdsByUserIdAndIdIn(userId, chunks.next())
+                    : null;
+        } else {
+            nextBatch = () -> nonEmptyOrNull(mealRepository.findIdsByUserIdAndMealTimeBetween(
+                    userId, request.getStartDate(), request.getEndDate(), PageRequest.of(0, batchSize)));
+        }
+
+        try {
+            executor.execute(() -> run(job, () -> deleteInBatches(job, nextBatch)));
+        } catch (TaskRejectedException e) {
+            jobRepository.finish(job.getId(), MealDeletionJob.Status.FAILED, "Rejected: executor is saturated",
+                    LocalDateTime.now());
+            logger.warn("Rejected {} deletion job for user {} - executor is saturated", job.getType(), userId);
+            throw new ServiceUnavailableException("Too many deletion jobs in progress, please retry later");
+        }
+        logger.info("Queued {} deletion job {} for user {}", job.getType(), job.getId(), userId);
+        return DeletionJobResponse.fromJob(job);
+    }
+
+    /**
+     * Deletes a user's meals, queues their images and finally deletes the account itself.
+     * Runs on the calling thread and returns the final job status; a failed purge leaves the
+     * account in place so that it can be retried.
+     */
+    public DeletionJobResponse purgeAccount(UUID userId) {
+        MealDeletionJob job = createJob(userId, MealDeletionJob.Type.ACCOUNT);
+        logger.info("Purging account {} - job {}", userId, job.getId());
+
+        run(job, () -> {
+            deleteInBatches(job, () -> nonEmptyOrNull(
+                    mealRepository.findIdsByUserId(userId, PageRequest.of(0, batchSize))));
+            // Meals inserted while the purge was running are removed by ON DELETE CASCADE;
+            // their images are picked up later by the orphaned object reconciler
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.deleteById(userId);
+                eventPublisher.publishEvent(new MealDataChangedEvent(userId));
+                eventPublisher.publishEvent(new UserDataChangedEvent(userId));
+            });
+            logger.info("Purged account {}", userId);
+        });
+
+        return DeletionJobResponse.fromJob(jobRepository.findById(job.getId()).orElse(job));
+    }
+
+    public DeletionJobResponse getJob(UUID jobId, UUID userId) {
+        return jobRepository.findByIdAndUserId(jobId, userId)
+                .map(DeletionJobResponse::fromJob)
+                .orElseThrow(() -> new ResourceNotFoundException("Deletion job not found with id: " + jobId));
+    }
+
+    /**
+     * Fails jobs abandoned by a restarted or crashed node and removes old finished jobs.
+     */
+    @Scheduled(fixedDelayString = "${meal.deletion.job-cleanup-interval-ms:600000}")
+    public void cleanUpJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        int stale = jobRepository.failStale(now.minus(staleJobTimeout),
+                "Interrupted: the node running this job stopped; please retry", now);
+        if (stale > 0) {
+            logger.warn("Marked {} abandoned deletion jobs as failed", stale);
+        }
+        jobRepository.deleteFinishedBefore(now.minus(jobRetention));
+    }
+
+    private MealDeletionJob createJob(UUID userId, MealDeletionJob.Type type) {
+        return jobRepository.save(MealDeletionJob.builder()
+                .userId(userId)
+                .type(type)
+                .build());
+    }
+
+    private void run(MealDeletionJob job, Runnable work) {
+        jobRepository.updateStatus(job.getId(), MealDeletionJob.Status.RUNNING, LocalDateTime.now());
+        try {
+            work.run();
+            jobRepository.finish(job.getId(), MealDeletionJob.Status.COMPLETED, null, LocalDateTime.now());
+            logger.info("Deletion job {} completed - Meals deleted: {}, Images queued: {}",
+                    job.getId(), job.getMealsDeleted(), job.getImagesQueued());
+        } catch (Exception e) {
+            logger.error("Deletion job {} failed", job.getId(), e);
+            jobRepository.finish(job.getId(), MealDeletionJob.Status.FAILED, truncate(e.getMessage()),
+                    LocalDateTime.now());
+        }
+
+        if (job.getImagesQueued() > 0) {
+            try {
+                executor.execute(storageReconciliationService::processDeletionQueue);
+            } catch (TaskRejectedException e) {
+                // Queued images are retried by the scheduled queue processor
+                logger.warn("Deferred processing of the deletion queue to the scheduled processor");
+            }
+        }
+    }
+
+    /**
+     * Deletes meals one batch per transaction until the batch supplier returns null.
+     */
+    private void deleteInBatches(MealDeletionJob job, Supplier<List<UUID>> nextBatch) {
+        while (true) {
+            int[] result = transactionTemplate.execute(status -> {
+                List<UUID> mealIds = nextBatch.get();
+                if (mealIds == null) {
+                    return null;
+                }
+                if (mealIds.isEmpty()) {
+                    return new int[]{0, 0};
+                }
+                dailyNutritionService.recordMealsRemoved(job.getUserId(), mealIds);
+                int queued = deletionTaskRepository.enqueueForMeals(mealIds);
+                int deleted = mealRepository.deleteByIdIn(mealIds);
+                jobRepository.addProgress(job.getId(), deleted, queued, LocalDateTime.now());
+                eventPublisher.publishEvent(new MealDataChangedEvent(job.getUserId()));
+                return new int[]{deleted, queued};
+            });
+
+            if (result == null) {
+                return;
+            }
+            // Local copy for logging; the committed counters are in meal_deletion_jobs
+            job.setMealsDeleted(job.getMealsDeleted() + result[0]);
+            job.setImagesQueued(job.getImagesQueued() + result[1]);
+        }
+    }
+
+    private List<List<UUID>> partition(List<UUID> ids) {
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            chunks.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private static List<UUID> nonEmptyOrNull(List<UUID> ids) {
+        return ids.isEmpty() ? null : ids;
+    }
+}
@@ -1,21 +1,134 @@
 package com.nutritheous.meal;
 
+import com.nutritheous.meal.dto.MealListItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface MealRepository extends JpaRepository<Meal, UUID> {
 
-    List<Meal> findByUserIdOrderByMealTimeDesc(UUID userId);
-
     List<Meal> findByUserIdAndMealTimeBetweenOrderByMealTimeDesc(
             UUID userId, LocalDateTime startTime, LocalDateTime endTime);
 
-    List<Meal> findByUserIdAndMealTypeOrderByMealTimeDesc(UUID userId, Meal.MealType mealType);
+    /**
+     * Keyset page of a user's meals, newest first, strictly after the cursor (mealTime, id).
+     * Served by idx_meals_user_meal_time_id; pass the page size through the Pageable.
+     * Rows are projected straight into {@link MealListItem} without loading entities; the JSONB
+     * columns are read only when {@code includeDetails} is set.
+     */
+    @Query("""
+            SELECT new com.nutritheous.meal.dto.MealListItem(
+                m.id, m.mealTime, m.mealType, m.objectName, m.description, m.servingSize,
+                m.calories, m.proteinG, m.fatG, m.saturatedFatG, m.carbohydratesG, m.fiberG,
+                m.sugarG, m.sodiumMg, m.cholesterolMg, m.healthNotes, m.confidence,
+                m.analysisStatus, m.createdAt,
+                CASE WHEN :includeDetails = true THEN m.ingredients END,
+                CASE WHEN :includeDetails = true THEN m.allergens END)
+            FROM Meal m
+            WHERE m.user.id = :userId
+              AND (m.mealTime < :cursorTime OR (m.mealTime = :cursorTime AND m.id < :cursorId))
+            ORDER BY m.mealTime DESC, m.id DESC
+            """)
+    List<MealListItem> findPageByUserId(
+            @Param("userId") UUID userId,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") UUID cursorId,
+            @Param("includeDetails") boolean includeDetails,
+            Pageable pageable);
+
+    @Query("""
+            SELECT new com.nutritheous.meal.dto.MealListItem(
+                m.id, m.mealTime, m.mealType, m.objectName, m.description, m.servingSize,
+                m.calories, m.proteinG, m.fatG, m.saturatedFatG, m.carbohydratesG, m.fiberG,
+                m.sugarG, m.sodiumMg, m.cholesterolMg, m.healthNotes, m.confidence,
+                m.analysisStatus, m.createdAt,
+                CASE WHEN :includeDetails = true THEN m.ingredients END,
+                CASE WHEN :includeDetails = true THEN m.allergens END)
+            FROM Meal m
+            WHERE m.user.id = :userId
+              AND m.mealTime BETWEEN :startTime AND :endTime
+              AND (m.mealTime < :cursorTime OR (m.mealTime = :cursorTime AND m.id < :cursorId))
+            ORDER BY m.mealTime DESC, m.id DESC
+            """)
+    List<MealListItem> findPageByUserIdAndMealTimeBetween(
+            @Param("userId") UUID userId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") UUID cursorId,
+            @Param("includeDetails") boolean includeDetails,
+            Pageable pageable);
+
+    @Query("""
+            SELECT new com.nutritheous.meal.dto.MealListItem(
+                m.id, m.mealTime, m.mealType, m.objectName, m.description, m.servingSize,
+                m.calories, m.proteinG, m.fatG, m.saturatedFatG, m.carbohydratesG, m.fiberG,
+                m.sugarG, m.sodiumMg, m.cholesterolMg, m.healthNotes, m.confidence,
+                m.analysisStatus, m.createdAt,
+                CASE WHEN :includeDetails = true THEN m.ingredients END,
+                CASE WHEN :includeDetails = true THEN m.allergens END)
+            FROM Meal m
+            WHERE m.user.id = :userId
+              AND m.mealType = :mealType
+              AND (m.mealTime < :cursorTime OR (m.mealTime = :cursorTime AND m.id < :cursorId))
+            ORDER BY m.mealTime DESC, m.id DESC
+            """)
+    List<MealListItem> findPageByUserIdAndMealType(
+            @Param("userId") UUID userId,
+            @Param("mealType") Meal.MealType mealType,
+            @Param("cursorTime") LocalDateTime cursorTime,
+            @Param("cursorId") UUID cursorId,
+            @Param("includeDetails") boolean includeDetails,
+            Pageable pageable);
 
     List<Meal> findByAnalysisStatus(Meal.AnalysisStatus status);
+
+    /**
+     * Returns the subset of the given object names that are still referenced by a meal.
+     */
+    @Query("SELECT m.objectName FROM Meal m WHERE m.objectName IN :objectNames")
+    List<String> findReferencedObjectNames(@Param("objectNames") Collection<String> objectNames);
+
+    @Query("SELECT m.id FROM Meal m WHERE m.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query("SELECT m.id FROM Meal m WHERE m.user.id = :userId AND m.mealTime BETWEEN :startTime AND :endTime")
+    List<UUID> findIdsByUserIdAndMealTimeBetween(
+            @Param("userId") UUID userId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            Pageable pageable);
+
+    @Query("SELECT m.id FROM Meal m WHERE m.user.id = :userId AND m.id IN :mealIds")
+    List<UUID> findIdsByUserIdAndIdIn(@Param("userId") UUID userId, @Param("mealIds") Collection<UUID> mealIds);
+
+    /**
+     * Fails meals left PENDING by an upload that never stored its analysis (restart, crash, or a
+     * failed second transaction). A result committed first is kept: the status is re-checked.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE Meal m SET m.analysisStatus = com.nutritheous.meal.Meal.AnalysisStatus.FAILED
+            WHERE m.analysisStatus = com.nutritheous.meal.Meal.AnalysisStatus.PENDING
+              AND m.createdAt < :cutoff
+            """)
+    int failPendingCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Deletes meals with a single set-based statement (no entity loading).
+     */
+    @Modifying
+    @Query("DELETE FROM Meal m WHERE m.id IN :mealIds")
+    int deleteByIdIn(@Param("mealIds") Collection<UUID> mealIds);
 }
@@ -1,21 +1,36 @@
 package com.nutritheous.meal;
 
-import com.nutritheous.analyzer.AnalyzerService;
-import com.nutritheous.auth.User;
+import com.nutritheous.analyzer.AnalysisPriority;
+import com.nutritheous.analyzer.AnalyzerScheduler;
+import com.nutritheous.analyzer.TokenUsage;
 import com.nutritheous.auth.UserRepository;
 import com.nutritheous.common.dto.AnalysisResponse;
 import com.nutritheous.common.dto.MealResponse;
 import com.nutritheous.common.exception.AnalyzerException;
 import com.nutritheous.common.exception.ResourceNotFoundException;
+import com.nutritheous.common.metrics.PipelineMetrics;
+import com.nutritheous.meal.dto.MealListItem;
+import com.nutritheous.meal.dto.MealPage;
 import com.nutritheous.meal.dto.MealUpdateRequest;
+import com.nutritheous.statistics.DailyNutritionService;
+import com.nutritheous.statistics.MealContribution;
 import com.nutritheous.storage.GoogleCloudStorageService;
+import com.nutritheous.storage.StorageReconciliationService;
+import com.nutritheous.usage.TokenUsageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -26,6 +41,9 @@ public class MealService {
 
     private static final Logger logger = LoggerFactory.getLogger(MealService.class);
 
+    /** Page size marking a list request without cursor or limit. */
+    private static final int UNPAGINATED = Integer.MAX_VALUE;
+
     @Autowired
     private MealRepository mealRepository;
 
@@ -36,9 +54,42 @@ public class MealService {
     private GoogleCloudStorageService storageService;
 
     @Autowired
-    private AnalyzerService analyzerService;
+    private AnalyzerScheduler analyzerScheduler;
 
-    @Transactional
+    @Autowired
+    private StorageReconciliationService storageReconciliationService;
+
+    @Autowired
+    private DailyNutritionService dailyNutritionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private TokenUsageService tokenUsageService;
+
+    @Value("${meal.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${meal.page.max-size:200}")
+    private int maxPageSize;
+
+    @Value("${meal.pending.timeout:PT10M}")
+    private Duration pendingTimeout;
+
+    /**
+     * Uploads and analyzes a meal.
+     *
+     * Deliberately not @Transactional: the GCS upload and the OpenAI round trip can take tens of
+     * seconds, so the database is only touched in two short transactions (insert the PENDING meal,
+     * then store the analysis result) and no pooled connection is held while waiting on remote calls.
+     */
     public MealResponse uploadMeal(
             UUID userId,
             MultipartFile image,
@@ -46,10 +97,6 @@ public class MealService {
             LocalDateTime mealTime,
             String description
     ) {
-        // Validate user exists
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-
         String objectName = null;
         String tempAnalyzerUrl = null;
         boolean hasImage = image != null && !image.isEmpty();
@@ -64,48 +111,88 @@ public class MealService {
             logger.info("No image provided, creating text-only meal entry");
         }
 
-        // Create meal entity with pending status
-        Meal meal = Meal.builder()
-                .user(user)
-                .mealTime(mealTime != null ? mealTime : LocalDateTime.now())
-                .mealType(mealType)
-                .objectName(objectName)
-                .description(description)
-                .analysisStatus(Meal.AnalysisStatus.PENDING)
-                .build();
-
-        meal = mealRepository.save(meal);
-        logger.info("Created meal with id: {}", meal.getId());
-
-        // Analyze the meal (with or without image)
+        // Create meal entity with pending status (short transaction #1)
+        Meal meal = insertPendingMeal(userId, mealType, mealTime, objectName, description);
         UUID mealId = meal.getId();
+        logger.info("Created meal with id: {}", mealId);
+
+        // Analyze the meal (with or without image) - no transaction or connection held here
+        AnalysisResponse analysisResponse = null;
+        TokenUsage tokenUsage = null;
         try {
             if (hasImage) {
                 logger.info("Sending image to AI analyzer with user description: {}", description);
-                AnalysisResponse analysisResponse = analyzerService.analyzeImage(tempAnalyzerUrl, description);
-                updateMealWithAnalysis(meal, analysisResponse);
+                analysisResponse = analyzerScheduler.analyzeImage(AnalysisPriority.INTERACTIVE, tempAnalyzerUrl, description);
             } else if (description != null && !description.isBlank()) {
                 logger.info("Analyzing text-only meal description: {}", description);
-                AnalysisResponse analysisResponse = analyzerService.analyzeTextOnly(description);
-                updateMealWithAnalysis(meal, analysisResponse);
+                analysisResponse = analyzerScheduler.analyzeTextOnly(AnalysisPriority.INTERACTIVE, description);
             } else {
                 // This shouldn't happen due to validation in controller, but handle it
                 logger.warn("Meal {} has neither image nor description", mealId);
-                meal.setAnalysisStatus(Meal.AnalysisStatus.FAILED);
             }
-
-            meal = mealRepository.save(meal);
-            logger.info("Updated meal {} with analysis results", mealId);
-
+            pipelineMetrics.recordAnalysisOutcome(analysisResponse != null ? "completed" : "skipped");
+            tokenUsage = analysisResponse != null ? analysisResponse.getTokenUsage() : null;
         } catch (AnalyzerException e) {
             logger.error("Failed to analyze meal {}", mealId, e);
-            meal.setAnalysisStatus(Meal.AnalysisStatus.FAILED);
-            meal = mealRepository.save(meal);
+            pipelineMetrics.recordAnalysisOutcome("failed");
+            tokenUsage = e.getTokenUsage();
         }
 
+        // Store the analysis result (short transaction #2)
+        AnalysisResponse result = analysisResponse;
+        TokenUsage usage = tokenUsage;
+        meal = pipelineMetrics.time(PipelineMetrics.DB_SAVE, () -> transactionTemplate.execute(status -> {
+            // Lock before loading, so a concurrent edit of the meal is seen rather than overwritten
+            dailyNutritionService.lockUser(userId);
+            Meal pending = mealRepository.findById(mealId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Meal not found with id: " + mealId));
+            MealContribution before = dailyNutritionService.beginMealUpdate(pending);
+            if (result != null) {
+                updateMealWithAnalysis(pending, result);
+            } else {
+                pending.setAnalysisStatus(Meal.AnalysisStatus.FAILED);
+            }
+            if (usage != null) {
+                // Failed analyses are metered too: the tokens were billed either way
+                pending.setAiModel(usage.model());
+                pending.setPromptTokens(usage.promptTokens());
+                pending.setCompletionTokens(usage.completionTokens());
+                tokenUsageService.record(userId, mealId, TokenUsageService.ENDPOINT_MEAL_UPLOAD, usage);
+            }
+            // One net delta: the meal stays on its day, so only the analyzed nutrients are added
+            dailyNutritionService.recordMealUpdated(before, pending);
+            eventPublisher.publishEvent(new MealDataChangedEvent(userId));
+            return pending;
+        }));
+        logger.info("Updated meal {} with analysis status {}", mealId, meal.getAnalysisStatus());
+
         return MealResponse.fromMeal(meal, storageService);
     }
 
+    private Meal insertPendingMeal(
+            UUID userId,
+            Meal.MealType mealType,
+            LocalDateTime mealTime,
+            String objectName,
+            String description
+    ) {
+        // The user comes from the authenticated principal, so only a reference is needed here;
+        // the FK on meals.user_id still rejects unknown users without an extra SELECT
+        return pipelineMetrics.time(PipelineMetrics.DB_SAVE, () -> transactionTemplate.execute(status -> {
+            Meal meal = mealRepository.save(Meal.builder()
+                    .user(userRepository.getReferenceById(userId))
+                    .mealTime(mealTime != null ? mealTime : LocalDateTime.now())
+                    .mealType(mealType)
+                    .objectName(objectName)
+                    .description(description)
+                    .analysisStatus(Meal.AnalysisStatus.PENDING)
+                    .build());
+            dailyNutritionService.recordMealAdded(meal);
+            eventPublisher.publishEvent(new MealDataChangedEvent(userId));
+            return meal;
+        }));
+    }
+
     private void updateMealWithAnalysis(Meal meal, AnalysisResponse analysisResponse) {
         // Update meal with analysis results - map all fields (note: description is kept from user input, not AI)
         meal.setServingSize(analysisResponse.getServingSize());
@@ -137,33 +224,80 @@ public class MealService {
         return MealResponse.fromMeal(meal, storageService);
     }
 
-    public List<MealResponse> getUserMeals(UUID userId) {
-        return mealRepository.findByUserIdOrderByMealTimeDesc(userId)
-                .stream()
-                .map(meal -> MealResponse.fromMeal(meal, storageService))
-                .collect(Collectors.toList());
+    public MealPage getUserMeals(UUID userId, String cursor, Integer limit, boolean includeDetails) {
+        MealCursor position = MealCursor.decode(cursor);
+        int pageSize = resolvePageSize(cursor, limit);
+        return toPage(mealRepository.findPageByUserId(
+                userId, position.mealTime(), position.id(), includeDetails, pageRequest(pageSize)), pageSize);
     }
 
-    public List<MealResponse> getUserMealsByDateRange(
+    public MealPage getUserMealsByDateRange(
             UUID userId,
             LocalDateTime startDate,
-            LocalDateTime endDate
+            LocalDateTime endDate,
+            String cursor,
+            Integer limit,
+            boolean includeDetails
     ) {
-        return mealRepository.findByUserIdAndMealTimeBetweenOrderByMealTimeDesc(userId, startDate, endDate)
-                .stream()
-                .map(meal -> MealResponse.fromMeal(meal, storageService))
-                .collect(Collectors.toList());
+        MealCursor position = MealCursor.decode(cursor);
+        int pageSize = resolvePageSize(cursor, limit);
+        return toPage(mealRepository.findPageByUserIdAndMealTimeBetween(
+                userId, startDate, endDate, position.mealTime(), position.id(), includeDetails,
+                pageRequest(pageSize)), pageSize);
+    }
+
+    public MealPage getUserMealsByType(UUID userId, Meal.MealType mealType, String cursor, Integer limit,
+                                       boolean includeDetails) {
+        MealCursor position = MealCursor.decode(cursor);
+        int pageSize = resolvePageSize(cursor, limit);
+        return toPage(mealRepository.findPageByUserIdAndMealType(
+                userId, mealType, position.mealTime(), position.id(), includeDetails,
+                pageRequest(pageSize)), pageSize);
     }
 
-    public List<MealResponse> getUserMealsByType(UUID userId, Meal.MealType mealType) {
-        return mealRepository.findByUserIdAndMealTypeOrderByMealTimeDesc(userId, mealType)
-                .stream()
-                .map(meal -> MealResponse.fromMeal(meal, storageService))
+    /**
+     * Requests without cursor and limit keep the original unpaginated behaviour,
+     * so clients that only read the body still get every meal.
+     */
+    private int resolvePageSize(String cursor, Integer limit) {
+        if (cursor == null && limit == null) {
+            return UNPAGINATED;
+        }
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    /**
+     * Fetches one row more than the page size to detect a following page.
+     */
+    private Pageable pageRequest(int pageSize) {
+        return pageSize == UNPAGINATED ? Pageable.unpaged() : PageRequest.of(0, pageSize + 1);
+    }
+
+    /**
+     * Builds a page from a query that fetched one row more than the page size;
+     * the extra row only signals that another page exists.
+     */
+    private MealPage toPage(List<MealListItem> meals, int pageSize) {
+        boolean hasMore = meals.size() > pageSize;
+        List<MealListItem> pageMeals = hasMore ? meals.subList(0, pageSize) : meals;
+
+        List<MealResponse> responses = pageMeals.stream()
+                .map(meal -> MealResponse.fromListItem(meal, storageService))
                 .collect(Collectors.toList());
+
+        return MealPage.builder()
+                .meals(responses)
+                .nextCursor(hasMore ? MealCursor.after(pageMeals.get(pageSize - 1)).encode() : null)
+                .build();
     }
 
     @Transactional
     public MealResponse updateMeal(UUID mealId, UUID userId, MealUpdateRequest request) {
+        // Lock before loading, so the rollup delta and the saved row start from committed values
+        dailyNutritionService.lockUser(userId);
         Meal meal = mealRepository.findById(mealId)
                 .orElseThrow(() -> new ResourceNotFoundException("Meal not found with id: " + mealId));
 
@@ -172,6 +306,9 @@ public class MealService {
             throw new ResourceNotFoundException("Meal not found with id: " + mealId);
         }
 
+        // Capture the meal's old rollup values; the net change is applied after the update
+        MealContribution before = dailyNutritionService.beginMealUpdate(meal);
+
         // Update meal metadata (only update non-null fields)
         if (request.getMealType() != null) {
             meal.setMealType(request.getMealType());
@@ -227,13 +364,30 @@ public class MealService {
         }
 
         meal = mealRepository.save(meal);
+        dailyNutritionService.recordMealUpdated(before, meal);
+        eventPublisher.publishEvent(new MealDataChangedEvent(userId));
         logger.info("Updated meal with id: {}", mealId);
 
         return MealResponse.fromMeal(meal, storageService);
     }
 
+    /**
+     * Resolves meals whose upload stopped between its two transactions. The timeout is well above
+     * the analyzer's queue wait plus the OpenAI timeout, so in-flight uploads are never touched.
+     * The rollup already counts a pending meal with no nutrients, which is what a failed one adds.
+     */
+    @Scheduled(fixedDelayString = "${meal.pending.sweep-interval-ms:300000}")
+    public void failAbandonedPendingMeals() {
+        int failed = mealRepository.failPendingCreatedBefore(LocalDateTime.now().minus(pendingTimeout));
+        if (failed > 0) {
+            logger.warn("Marked {} abandoned PENDING meals as FAILED", failed);
+        }
+    }
+
     @Transactional
     public void deleteMeal(UUID mealId, UUID userId) {
+        // Lock before loading, so the values subtracted from the rollup are the committed ones
+        dailyNutritionService.lockUser(userId);
         Meal meal = mealRepository.findById(mealId)
                 .orElseThrow(() -> new ResourceNotFoundException("Meal not found with id: " + mealId));
 
@@ -248,11 +402,15 @@ public class MealService {
                 storageService.deleteFile(meal.getObjectName());
             }
         } catch (Exception e) {
-            logger.error("Failed to delete image from storage for meal {}", mealId, e);
+            // Queue the object for retry so it is not leaked in the bucket
+            logger.error("Failed to delete image from storage for meal {}, queueing for retry", mealId, e);
+            storageReconciliationService.enqueueDeletion(meal.getObjectName(), e.getMessage());
         }
 
         // Delete meal from database
+        dailyNutritionService.recordMealRemoved(meal);
         mealRepository.delete(meal);
+        eventPublisher.publishEvent(new MealDataChangedEvent(userId));
         logger.info("Deleted meal with id: {}", mealId);
     }
 }
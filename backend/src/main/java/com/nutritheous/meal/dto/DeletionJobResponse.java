@@ -0,0 +1,42 @@
+package com.nutritheous.meal.dto;
+
+import com.nutritheous.meal.MealDeletionJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of an asynchronous bulk meal deletion or account purge
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletionJobResponse {
+
+    private UUID jobId;
+    private MealDeletionJob.Type type;
+    private MealDeletionJob.Status status;
+    private long mealsDeleted;
+    private long imagesQueued;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+    public static DeletionJobResponse fromJob(MealDeletionJob job) {
+        return DeletionJobResponse.builder()
+                .jobId(job.getId())
+                .type(job.getType())
+                .status(job.getStatus())
+                .mealsDeleted(job.getMealsDeleted())
+                .imagesQueued(job.getImagesQueued())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.nutritheous.meal.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO for deleting many meals at once
+ * Select meals either by an explicit list of IDs or by a meal time range (not both)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealBulkDeleteRequest {
+
+    @Size(max = 1000, message = "Cannot delete more than 1000 meals by ID at once")
+    private List<UUID> mealIds;
+
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    @JsonIgnore
+    public boolean isByIds() {
+        return mealIds != null && !mealIds.isEmpty();
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Provide either mealIds or both startDate and endDate (with startDate before endDate)")
+    public boolean isSelectionValid() {
+        boolean hasRange = startDate != null || endDate != null;
+        if (isByIds()) {
+            return !hasRange;
+        }
+        return startDate != null && endDate != null && !startDate.isAfter(endDate);
+    }
+}
@@ -0,0 +1,37 @@
+package com.nutritheous.meal.dto;
+
+import com.nutritheous.meal.Meal;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only row for meal list views, populated directly by a JPQL constructor expression.
+ * Skips the user association and never enters the persistence context. The JSONB columns
+ * (ingredients, allergens) are null unless the list was queried with details.
+ */
+public record MealListItem(
+        UUID id,
+        LocalDateTime mealTime,
+        Meal.MealType mealType,
+        String objectName,
+        String description,
+        String servingSize,
+        Integer calories,
+        Double proteinG,
+        Double fatG,
+        Double saturatedFatG,
+        Double carbohydratesG,
+        Double fiberG,
+        Double sugarG,
+        Double sodiumMg,
+        Double cholesterolMg,
+        String healthNotes,
+        Double confidence,
+        Meal.AnalysisStatus analysisStatus,
+        LocalDateTime createdAt,
+        List<String> ingredients,
+        List<String> allergens
+) {
+}
@@ -0,0 +1,23 @@
+package com.nutritheous.meal.dto;
+
+import com.nutritheous.common.dto.MealResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated meal list
+ * nextCursor is null on the last page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MealPage {
+
+    private List<MealResponse> meals;
+    private String nextCursor;
+}
@@ -1,11 +1,13 @@
 package com.nutritheous.service;
 
 import com.nutritheous.auth.User;
+import com.nutritheous.auth.UserDataChangedEvent;
 import com.nutritheous.auth.UserRepository;
 import com.nutritheous.dto.UserProfileRequest;
 import com.nutritheous.dto.UserProfileResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +23,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final CalorieCalculationService calorieCalculationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Gets user profile by user ID.
@@ -93,6 +96,7 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserDataChangedEvent(userId));
         return UserProfileResponse.fromUser(savedUser);
     }
 }
@@ -0,0 +1,74 @@
+package com.nutritheous.statistics;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Daily nutrition rollup: one row per user and calendar day that has at least one meal.
+ * Written only through native statements in {@link DailyNutritionRepository}; read-only as an entity.
+ */
+@Entity
+@Table(name = "daily_nutrition")
+@IdClass(DailyNutritionId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyNutrition {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Id
+    @Column(name = "meal_date")
+    private LocalDate mealDate;
+
+    @Column(name = "meal_count")
+    private int mealCount;
+
+    @Column(name = "breakfast_count")
+    private int breakfastCount;
+
+    @Column(name = "lunch_count")
+    private int lunchCount;
+
+    @Column(name = "dinner_count")
+    private int dinnerCount;
+
+    @Column(name = "snack_count")
+    private int snackCount;
+
+    @Column(name = "total_calories")
+    private int totalCalories;
+
+    @Column(name = "total_protein_g")
+    private double totalProteinG;
+
+    @Column(name = "total_fat_g")
+    private double totalFatG;
+
+    @Column(name = "total_saturated_fat_g")
+    private double totalSaturatedFatG;
+
+    @Column(name = "total_carbohydrates_g")
+    private double totalCarbohydratesG;
+
+    @Column(name = "total_fiber_g")
+    private double totalFiberG;
+
+    @Column(name = "total_sugar_g")
+    private double totalSugarG;
+
+    @Column(name = "total_sodium_mg")
+    private double totalSodiumMg;
+
+    @Column(name = "total_cholesterol_mg")
+    private double totalCholesterolMg;
+}
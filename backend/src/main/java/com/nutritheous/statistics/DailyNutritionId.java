@@ -0,0 +1,21 @@
+package com.nutritheous.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Composite primary key of {@link DailyNutrition}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyNutritionId implements Serializable {
+
+    private UUID userId;
+    private LocalDate mealDate;
+}
@@ -0,0 +1,254 @@
+package com.nutritheous.statistics;
+
+import com.nutritheous.statistics.dto.DailyCalories;
+import com.nutritheous.statistics.dto.DailyNutritionStats;
+import com.nutritheous.statistics.dto.NutritionTotals;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DailyNutritionRepository extends JpaRepository<DailyNutrition, DailyNutritionId> {
+
+    List<DailyNutrition> findByUserIdAndMealDateBetweenOrderByMealDate(
+            UUID userId, LocalDate startDate, LocalDate endDate);
+
+    @Query("""
+            SELECT new com.nutritheous.statistics.dto.DailyNutritionStats(
+                d.mealDate, d.totalCalories, d.totalProteinG, d.totalFatG, d.totalSaturatedFatG,
+                d.totalCarbohydratesG, d.totalFiberG, d.totalSugarG, d.totalSodiumMg,
+                d.totalCholesterolMg, d.mealCount)
+            FROM DailyNutrition d
+            WHERE d.userId = :userId
+              AND d.mealDate BETWEEN :startDate AND :endDate
+            ORDER BY d.mealDate
+            """)
+    List<DailyNutritionStats> findDailyStats(
+            @Param("userId") UUID userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    @Query("""
+            SELECT new com.nutritheous.statistics.dto.DailyCalories(d.mealDate, d.totalCalories)
+            FROM DailyNutrition d
+            WHERE d.userId = :userId
+              AND d.mealDate BETWEEN :startDate AND :endDate
+              AND d.mealCount > 0
+            ORDER BY d.mealDate
+            """)
+    List<DailyCalories> findDailyCalories(
+            @Param("userId") UUID userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Sums and averages a date range in the database, so only one row crosses the wire.
+     */
+    @Query("""
+            SELECT new com.nutritheous.statistics.dto.NutritionTotals(
+                COUNT(d),
+                COALESCE(SUM(d.mealCount), 0L),
+                COALESCE(SUM(d.breakfastCount), 0L),
+                COALESCE(SUM(d.lunchCount), 0L),
+                COALESCE(SUM(d.dinnerCount), 0L),
+                COALESCE(SUM(d.snackCount), 0L),
+                COALESCE(SUM(d.totalCalories), 0L),
+                COALESCE(AVG(d.totalCalories), 0.0),
+                COALESCE(AVG(d.totalProteinG), 0.0),
+                COALESCE(AVG(d.totalCarbohydratesG), 0.0),
+                COALESCE(AVG(d.totalFatG), 0.0))
+            FROM DailyNutrition d
+            WHERE d.userId = :userId
+              AND d.mealDate BETWEEN :startDate AND :endDate
+            """)
+    NutritionTotals sumRange(
+            @Param("userId") UUID userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Sums days into date_trunc buckets ('day', 'week', 'month' or 'year').
+     * Columns: period_start, active_days, meal_count, then the nutrient totals in {@link Nutrient} order.
+     */
+    @Query(value = """
+            SELECT
+                CAST(date_trunc(:unit, CAST(meal_date AS TIMESTAMP)) AS DATE) AS period_start,
+                COUNT(*) AS active_days,
+                SUM(meal_count) AS meal_count,
+                SUM(total_calories),
+                SUM(total_protein_g),
+                SUM(total_fat_g),
+                SUM(total_saturated_fat_g),
+                SUM(total_carbohydrates_g),
+                SUM(total_fiber_g),
+                SUM(total_sugar_g),
+                SUM(total_sodium_mg),
+                SUM(total_cholesterol_mg)
+            FROM daily_nutrition
+            WHERE user_id = :userId
+              AND meal_date BETWEEN :startDate AND :endDate
+              AND meal_count > 0
+            GROUP BY 1
+            ORDER BY 1
+            """, nativeQuery = true)
+    List<Object[]> sumByPeriod(
+            @Param("userId") UUID userId,
+            @Param("unit") String unit,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Adds a (possibly negative) delta to a user's day, creating the row if needed.
+     * The increment happens inside Postgres, so concurrent writers to the same day never lose updates.
+     * Returns the day's meal count after the change.
+     */
+    @Query(value = """
+            INSERT INTO daily_nutrition (
+                user_id, meal_date, meal_count, breakfast_count, lunch_count, dinner_count, snack_count,
+                total_calories, total_protein_g, total_fat_g, total_saturated_fat_g, total_carbohydrates_g,
+                total_fiber_g, total_sugar_g, total_sodium_mg, total_cholesterol_mg
+            ) VALUES (
+                :userId, :mealDate, :mealCount, :breakfastCount, :lunchCount, :dinnerCount, :snackCount,
+                :calories, :proteinG, :fatG, :saturatedFatG, :carbohydratesG,
+                :fiberG, :sugarG, :sodiumMg, :cholesterolMg
+            )
+            ON CONFLICT (user_id, meal_date) DO UPDATE SET
+                meal_count = daily_nutrition.meal_count + EXCLUDED.meal_count,
+                breakfast_count = daily_nutrition.breakfast_count + EXCLUDED.breakfast_count,
+                lunch_count = daily_nutrition.lunch_count + EXCLUDED.lunch_count,
+                dinner_count = daily_nutrition.dinner_count + EXCLUDED.dinner_count,
+                snack_count = daily_nutrition.snack_count + EXCLUDED.snack_count,
+                total_calories = daily_nutrition.total_calories + EXCLUDED.total_calories,
+                total_protein_g = daily_nutrition.total_protein_g + EXCLUDED.total_protein_g,
+                total_fat_g = daily_nutrition.total_fat_g + EXCLUDED.total_fat_g,
+                total_saturated_fat_g = daily_nutrition.total_saturated_fat_g + EXCLUDED.total_saturated_fat_g,
+                total_carbohydrates_g = daily_nutrition.total_carbohydrates_g + EXCLUDED.total_carbohydrates_g,
+                total_fiber_g = daily_nutrition.total_fiber_g + EXCLUDED.total_fiber_g,
+                total_sugar_g = daily_nutrition.total_sugar_g + EXCLUDED.total_sugar_g,
+                total_sodium_mg = daily_nutrition.total_sodium_mg + EXCLUDED.total_sodium_mg,
+                total_cholesterol_mg = daily_nutrition.total_cholesterol_mg + EXCLUDED.total_cholesterol_mg
+            RETURNING meal_count
+            """, nativeQuery = true)
+    int applyDelta(
+            @Param("userId") UUID userId,
+            @Param("mealDate") LocalDate mealDate,
+            @Param("mealCount") int mealCount,
+            @Param("breakfastCount") int breakfastCount,
+            @Param("lunchCount") int lunchCount,
+            @Param("dinnerCount") int dinnerCount,
+            @Param("snackCount") int snackCount,
+            @Param("calories") int calories,
+            @Param("proteinG") double proteinG,
+            @Param("fatG") double fatG,
+            @Param("saturatedFatG") double saturatedFatG,
+            @Param("carbohydratesG") double carbohydratesG,
+            @Param("fiberG") double fiberG,
+            @Param("sugarG") double sugarG,
+            @Param("sodiumMg") double sodiumMg,
+            @Param("cholesterolMg") double cholesterolMg);
+
+    /**
+     * Subtracts the given meals from their days in one statement. Must run before the meals are deleted.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE daily_nutrition d SET
+                meal_count = d.meal_count - s.meal_count,
+                breakfast_count = d.breakfast_count - s.breakfast_count,
+                lunch_count = d.lunch_count - s.lunch_count,
+                dinner_count = d.dinner_count - s.dinner_count,
+                snack_count = d.snack_count - s.snack_count,
+                total_calories = d.total_calories - s.total_calories,
+                total_protein_g = d.total_protein_g - s.total_protein_g,
+                total_fat_g = d.total_fat_g - s.total_fat_g,
+                total_saturated_fat_g = d.total_saturated_fat_g - s.total_saturated_fat_g,
+                total_carbohydrates_g = d.total_carbohydrates_g - s.total_carbohydrates_g,
+                total_fiber_g = d.total_fiber_g - s.total_fiber_g,
+                total_sugar_g = d.total_sugar_g - s.total_sugar_g,
+                total_sodium_mg = d.total_sodium_mg - s.total_sodium_mg,
+                total_cholesterol_mg = d.total_cholesterol_mg - s.total_cholesterol_mg
+            FROM (
+                SELECT
+                    user_id,
+                    CAST(meal_time AS DATE) AS meal_date,
+                    COUNT(*) AS meal_count,
+                    COUNT(*) FILTER (WHERE meal_type = 'BREAKFAST') AS breakfast_count,
+                    COUNT(*) FILTER (WHERE meal_type = 'LUNCH') AS lunch_count,
+                    COUNT(*) FILTER (WHERE meal_type = 'DINNER') AS dinner_count,
+                    COUNT(*) FILTER (WHERE meal_type = 'SNACK') AS snack_count,
+                    COALESCE(SUM(calories), 0) AS total_calories,
+                    COALESCE(SUM(protein_g), 0) AS total_protein_g,
+                    COALESCE(SUM(fat_g), 0) AS total_fat_g,
+                    COALESCE(SUM(saturated_fat_g), 0) AS total_saturated_fat_g,
+                    COALESCE(SUM(carbohydrates_g), 0) AS total_carbohydrates_g,
+                    COALESCE(SUM(fiber_g), 0) AS total_fiber_g,
+                    COALESCE(SUM(sugar_g), 0) AS total_sugar_g,
+                    COALESCE(SUM(sodium_mg), 0) AS total_sodium_mg,
+                    COALESCE(SUM(cholesterol_mg), 0) AS total_cholesterol_mg
+                FROM meals
+                WHERE id IN (:mealIds)
+                GROUP BY user_id, CAST(meal_time AS DATE)
+            ) s
+            WHERE d.user_id = s.user_id AND d.meal_date = s.meal_date
+            """, nativeQuery = true)
+    int subtractMeals(@Param("mealIds") Collection<UUID> mealIds);
+
+    /**
+     * Removes a day once its last meal is gone.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM daily_nutrition WHERE user_id = :userId AND meal_date = :mealDate AND meal_count <= 0",
+            nativeQuery = true)
+    int deleteIfEmpty(@Param("userId") UUID userId, @Param("mealDate") LocalDate mealDate);
+
+    /**
+     * Removes all of a user's days that no longer have any meals.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM daily_nutrition WHERE user_id = :userId AND meal_count <= 0", nativeQuery = true)
+    int deleteEmptyDays(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM daily_nutrition WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUser(@Param("userId") UUID userId);
+
+    /**
+     * Recomputes all of a user's days from the meals table. Run after {@link #deleteByUser(UUID)}.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO daily_nutrition (
+                user_id, meal_date, meal_count, breakfast_count, lunch_count, dinner_count, snack_count,
+                total_calories, total_protein_g, total_fat_g, total_saturated_fat_g, total_carbohydrates_g,
+                total_fiber_g, total_sugar_g, total_sodium_mg, total_cholesterol_mg
+            )
+            SELECT
+                user_id,
+                CAST(meal_time AS DATE),
+                COUNT(*),
+                COUNT(*) FILTER (WHERE meal_type = 'BREAKFAST'),
+                COUNT(*) FILTER (WHERE meal_type = 'LUNCH'),
+                COUNT(*) FILTER (WHERE meal_type = 'DINNER'),
+                COUNT(*) FILTER (WHERE meal_type = 'SNACK'),
+                COALESCE(SUM(calories), 0),
+                COALESCE(SUM(protein_g), 0),
+                COALESCE(SUM(fat_g), 0),
+                COALESCE(SUM(saturated_fat_g), 0),
+                COALESCE(SUM(carbohydrates_g), 0),
+                COALESCE(SUM(fiber_g), 0),
+                COALESCE(SUM(sugar_g), 0),
+                COALESCE(SUM(sodium_mg), 0),
+                COALESCE(SUM(cholesterol_mg), 0)
+            FROM meals
+            WHERE user_id = :userId
+            GROUP BY user_id, CAST(meal_time AS DATE)
+            """, nativeQuery = true)
+    int rebuildFromMeals(@Param("userId") UUID userId);
+}
@@ -0,0 +1,200 @@
+package com.nutritheous.statistics;
+
+import com.nutritheous.auth.UserRepository;
+import com.nutritheous.meal.Meal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maintains the daily_nutrition rollup.
+ *
+ * The record* methods must run inside the transaction that writes the meal, so that the rollup
+ * and the meals table always commit (or roll back) together. The rebuild methods recompute
+ * rollups from scratch and are used for backfills and repairs.
+ *
+ * Logging streaks (user_streaks) depend only on which days exist, so they are recomputed just
+ * when a day gains its first meal or loses its last one.
+ *
+ * Every write first row-locks the user, so two transactions of the same user touching different
+ * days cannot compute streaks from snapshots that miss each other's day. The lock is always taken
+ * before any daily_nutrition row, which keeps the lock order deadlock-free.
+ */
+@Service
+@Slf4j
+public class DailyNutritionService {
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private final DailyNutritionRepository dailyNutritionRepository;
+    private final UserStreakRepository userStreakRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+
+    public DailyNutritionService(
+            DailyNutritionRepository dailyNutritionRepository,
+            UserStreakRepository userStreakRepository,
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${statistics.rollup.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.dailyNutritionRepository = dailyNutritionRepository;
+        this.userStreakRepository = userStreakRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMealAdded(Meal meal) {
+        userRepository.lockById(meal.getUser().getId());
+        addContribution(meal.getUser().getId(), MealContribution.of(meal));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMealRemoved(Meal meal) {
+        userRepository.lockById(meal.getUser().getId());
+        removeContribution(meal.getUser().getId(), MealContribution.of(meal));
+    }
+
+    /**
+     * Takes the user's rollup lock for the rest of the transaction. Meals that are about to be
+     * updated or deleted must be loaded after this, or a transaction that committed in between
+     * leaves them stale.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockUser(UUID userId) {
+        userRepository.lockById(userId);
+    }
+
+    /**
+     * Captures what the meal currently adds to its day. Call after {@link #lockUser(UUID)} and
+     * before changing the meal in place, then pass the result to {@link #recordMealUpdated}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public MealContribution beginMealUpdate(Meal meal) {
+        userRepository.lockById(meal.getUser().getId());
+        return MealContribution.of(meal);
+    }
+
+    /**
+     * Applies the net change of a meal updated in place. A meal that stays on its day with the same
+     * type is one delta with an unchanged meal count, so the day row and streaks are left alone.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMealUpdated(MealContribution before, Meal meal) {
+        UUID userId = meal.getUser().getId();
+        MealContribution after = MealContribution.of(meal);
+        if (after.sameDayAndType(before)) {
+            MealContribution delta = after.minus(before);
+            if (!delta.isZero()) {
+                applyDelta(userId, delta);
+            }
+            return;
+        }
+        removeContribution(userId, before);
+        addContribution(userId, after);
+    }
+
+    /**
+     * Subtracts a batch of meals of one user with a single set-based statement.
+     * Must be called before the meals are deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMealsRemoved(UUID userId, Collection<UUID> mealIds) {
+        userRepository.lockById(userId);
+        dailyNutritionRepository.subtractMeals(mealIds);
+        if (dailyNutritionRepository.deleteEmptyDays(userId) > 0) {
+            refreshStreaks(userId);
+        }
+    }
+
+    /**
+     * Recomputes all daily rollups of a user from the meals table.
+     */
+    @Transactional
+    public void rebuildUser(UUID userId) {
+        userRepository.lockById(userId);
+        dailyNutritionRepository.deleteByUser(userId);
+        int days = dailyNutritionRepository.rebuildFromMeals(userId);
+        refreshStreaks(userId);
+        log.debug("Rebuilt {} daily nutrition rows for user {}", days, userId);
+    }
+
+    /**
+     * Recomputes the rollups of every user, one short transaction per user.
+     */
+    public void rebuildAll() {
+        log.info("📊 Rebuilding daily nutrition rollups for all users");
+        int users = 0;
+        List<UUID> userIds;
+        int page = 0;
+        do {
+            userIds = userRepository.findAllIds(PageRequest.of(page++, REBUILD_PAGE_SIZE));
+            for (UUID userId : userIds) {
+                transactionTemplate.executeWithoutResult(status -> rebuildUser(userId));
+                users++;
+            }
+        } while (userIds.size() == REBUILD_PAGE_SIZE);
+        log.info("✅ Rebuilt daily nutrition rollups for {} users", users);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartupIfEnabled() {
+        if (rebuildOnStartup) {
+            rebuildAll();
+        }
+    }
+
+    private void refreshStreaks(UUID userId) {
+        if (userStreakRepository.upsertFromDailyNutrition(userId) == 0) {
+            userStreakRepository.deleteByUser(userId);
+        }
+    }
+
+    private void addContribution(UUID userId, MealContribution contribution) {
+        if (applyDelta(userId, contribution) == 1) {
+            refreshStreaks(userId);
+        }
+    }
+
+    private void removeContribution(UUID userId, MealContribution contribution) {
+        if (applyDelta(userId, contribution.negate()) <= 0) {
+            dailyNutritionRepository.deleteIfEmpty(userId, contribution.mealDate());
+            refreshStreaks(userId);
+        }
+    }
+
+    private int applyDelta(UUID userId, MealContribution delta) {
+        Meal.MealType type = delta.mealType();
+        int count = delta.mealCount();
+        return dailyNutritionRepository.applyDelta(
+                userId,
+                delta.mealDate(),
+                count,
+                type == Meal.MealType.BREAKFAST ? count : 0,
+                type == Meal.MealType.LUNCH ? count : 0,
+                type == Meal.MealType.DINNER ? count : 0,
+                type == Meal.MealType.SNACK ? count : 0,
+                delta.calories(),
+                delta.proteinG(),
+                delta.fatG(),
+                delta.saturatedFatG(),
+                delta.carbohydratesG(),
+                delta.fiberG(),
+                delta.sugarG(),
+                delta.sodiumMg(),
+                delta.cholesterolMg()
+        );
+    }
+}
@@ -0,0 +1,66 @@
+package com.nutritheous.statistics;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013) over evenly spaced points.
+ * Keeps the first and last point and, per bucket, the point forming the largest triangle with the
+ * previously kept point and the average of the next bucket, which preserves peaks and dips.
+ */
+final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Returns the indices of the points to keep, in ascending order.
+     * Returns every index when {@code threshold} is at least the number of points or below 3.
+     */
+    static int[] selectIndices(double[] y, int threshold) {
+        int n = y.length;
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int previous = 0;
+        selected[0] = 0;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket is the third vertex of the triangle
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += i;
+                avgY += y[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            avgX /= nextLength;
+            avgY /= nextLength;
+
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((previous - avgX) * (y[i] - y[previous])
+                        - (previous - i) * (avgY - y[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+
+            selected[bucket + 1] = chosen;
+            previous = chosen;
+        }
+
+        selected[threshold - 1] = n - 1;
+        return selected;
+    }
+}
@@ -0,0 +1,70 @@
+package com.nutritheous.statistics;
+
+import com.nutritheous.meal.Meal;
+
+import java.time.LocalDate;
+
+/**
+ * What one meal adds to its day in daily_nutrition, captured before the meal is changed in place
+ * so that {@link DailyNutritionService#recordMealUpdated(MealContribution, Meal)} can apply the net difference.
+ */
+public record MealContribution(
+        LocalDate mealDate,
+        Meal.MealType mealType,
+        int mealCount,
+        int calories,
+        double proteinG,
+        double fatG,
+        double saturatedFatG,
+        double carbohydratesG,
+        double fiberG,
+        double sugarG,
+        double sodiumMg,
+        double cholesterolMg
+) {
+
+    public static MealContribution of(Meal meal) {
+        return new MealContribution(
+                meal.getMealTime().toLocalDate(),
+                meal.getMealType(),
+                1,
+                meal.getCalories() != null ? meal.getCalories() : 0,
+                valueOrZero(meal.getProteinG()),
+                valueOrZero(meal.getFatG()),
+                valueOrZero(meal.getSaturatedFatG()),
+                valueOrZero(meal.getCarbohydratesG()),
+                valueOrZero(meal.getFiberG()),
+                valueOrZero(meal.getSugarG()),
+                valueOrZero(meal.getSodiumMg()),
+                valueOrZero(meal.getCholesterolMg())
+        );
+    }
+
+    public MealContribution negate() {
+        return new MealContribution(mealDate, mealType, -mealCount, -calories,
+                -proteinG, -fatG, -saturatedFatG, -carbohydratesG, -fiberG, -sugarG, -sodiumMg, -cholesterolMg);
+    }
+
+    /**
+     * Difference to an earlier contribution on the same day and meal type; the meal count cancels out.
+     */
+    public MealContribution minus(MealContribution before) {
+        return new MealContribution(mealDate, mealType, mealCount - before.mealCount, calories - before.calories,
+                proteinG - before.proteinG, fatG - before.fatG, saturatedFatG - before.saturatedFatG,
+                carbohydratesG - before.carbohydratesG, fiberG - before.fiberG, sugarG - before.sugarG,
+                sodiumMg - before.sodiumMg, cholesterolMg - before.cholesterolMg);
+    }
+
+    public boolean isZero() {
+        return mealCount == 0 && calories == 0 && proteinG == 0 && fatG == 0 && saturatedFatG == 0
+                && carbohydratesG == 0 && fiberG == 0 && sugarG == 0 && sodiumMg == 0 && cholesterolMg == 0;
+    }
+
+    public boolean sameDayAndType(MealContribution other) {
+        return mealDate.equals(other.mealDate) && mealType == other.mealType;
+    }
+
+    private static double valueOrZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.nutritheous.statistics;
+
+import com.nutritheous.common.exception.BadRequestException;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Nutrients that can be requested in a series. Declaration order matches the nutrient
+ * columns returned by {@link DailyNutritionRepository#sumByPeriod}.
+ */
+public enum Nutrient {
+    CALORIES("calories"),
+    PROTEIN("protein"),
+    FAT("fat"),
+    SATURATED_FAT("saturatedFat"),
+    CARBOHYDRATES("carbohydrates"),
+    FIBER("fiber"),
+    SUGAR("sugar"),
+    SODIUM("sodium"),
+    CHOLESTEROL("cholesterol");
+
+    private final String key;
+
+    Nutrient(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static Nutrient fromKey(String key) {
+        for (Nutrient nutrient : values()) {
+            if (nutrient.key.equalsIgnoreCase(key.trim())) {
+                return nutrient;
+            }
+        }
+        throw new BadRequestException("Unknown nutrient '" + key + "', expected one of: "
+                + Arrays.stream(values()).map(Nutrient::getKey).collect(Collectors.joining(", ")));
+    }
+}
@@ -0,0 +1,169 @@
+package com.nutritheous.statistics;
+
+import com.nutritheous.meal.Meal;
+import com.nutritheous.statistics.dto.NutritionTotals;
+import com.nutritheous.statistics.dto.PeriodicSummaryStats;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Column-oriented view of daily rollup rows: one primitive array per nutrient, indexed by the
+ * day offset from the first day with data. Filled in a single pass; every period of interest is
+ * then a plain array range reduction, without boxing or intermediate collections.
+ *
+ * Floating point sums use four independent accumulators so the JIT can keep several additions
+ * in flight (and pack them into SIMD lanes where it is able to).
+ */
+final class NutrientColumns {
+
+    static final int CALORIES = 0;
+    static final int PROTEIN = 1;
+    static final int FAT = 2;
+    static final int SATURATED_FAT = 3;
+    static final int CARBOHYDRATES = 4;
+    static final int FIBER = 5;
+    static final int SUGAR = 6;
+    static final int SODIUM = 7;
+    static final int CHOLESTEROL = 8;
+    private static final int NUTRIENT_COUNT = 9;
+
+    private static final Meal.MealType[] MEAL_TYPES = Meal.MealType.values();
+
+    private final LocalDate firstDay;
+    private final int days;
+    private final double[][] nutrients;
+    private final int[] mealCounts;
+    private final int[][] mealTypeCounts;
+
+    private NutrientColumns(LocalDate firstDay, int days) {
+        this.firstDay = firstDay;
+        this.days = days;
+        this.nutrients = new double[NUTRIENT_COUNT][days];
+        this.mealCounts = new int[days];
+        this.mealTypeCounts = new int[MEAL_TYPES.length][days];
+    }
+
+    /**
+     * Builds the columns from rows ordered by date. The arrays only span the days that have data.
+     */
+    static NutrientColumns of(List<DailyNutrition> rows) {
+        if (rows.isEmpty()) {
+            return new NutrientColumns(LocalDate.now(), 0);
+        }
+        LocalDate first = rows.get(0).getMealDate();
+        LocalDate last = rows.get(rows.size() - 1).getMealDate();
+        NutrientColumns columns = new NutrientColumns(first, (int) ChronoUnit.DAYS.between(first, last) + 1);
+
+        for (DailyNutrition row : rows) {
+            int day = columns.offset(row.getMealDate());
+            columns.nutrients[CALORIES][day] = row.getTotalCalories();
+            columns.nutrients[PROTEIN][day] = row.getTotalProteinG();
+            columns.nutrients[FAT][day] = row.getTotalFatG();
+            columns.nutrients[SATURATED_FAT][day] = row.getTotalSaturatedFatG();
+            columns.nutrients[CARBOHYDRATES][day] = row.getTotalCarbohydratesG();
+            columns.nutrients[FIBER][day] = row.getTotalFiberG();
+            columns.nutrients[SUGAR][day] = row.getTotalSugarG();
+            columns.nutrients[SODIUM][day] = row.getTotalSodiumMg();
+            columns.nutrients[CHOLESTEROL][day] = row.getTotalCholesterolMg();
+            columns.mealCounts[day] = row.getMealCount();
+            columns.mealTypeCounts[Meal.MealType.BREAKFAST.ordinal()][day] = row.getBreakfastCount();
+            columns.mealTypeCounts[Meal.MealType.LUNCH.ordinal()][day] = row.getLunchCount();
+            columns.mealTypeCounts[Meal.MealType.DINNER.ordinal()][day] = row.getDinnerCount();
+            columns.mealTypeCounts[Meal.MealType.SNACK.ordinal()][day] = row.getSnackCount();
+        }
+        return columns;
+    }
+
+    /**
+     * Aggregates every day from {@code from} (inclusive) to the last day with data.
+     */
+    NutritionTotals totalsFrom(LocalDate from) {
+        return totals(clampedOffset(from), days);
+    }
+
+    /**
+     * Aggregates the days from {@code from} to {@code to}, both inclusive.
+     */
+    NutritionTotals totalsBetween(LocalDate from, LocalDate to) {
+        int start = clampedOffset(from);
+        return totals(start, Math.max(start, clampedOffset(to.plusDays(1))));
+    }
+
+    private NutritionTotals totals(int start, int end) {
+        long activeDays = activeDays(start, end);
+        return new NutritionTotals(
+                activeDays,
+                sum(mealCounts, start, end),
+                sum(mealTypeCounts[Meal.MealType.BREAKFAST.ordinal()], start, end),
+                sum(mealTypeCounts[Meal.MealType.LUNCH.ordinal()], start, end),
+                sum(mealTypeCounts[Meal.MealType.DINNER.ordinal()], start, end),
+                sum(mealTypeCounts[Meal.MealType.SNACK.ordinal()], start, end),
+                (long) sum(nutrients[CALORIES], start, end),
+                average(sum(nutrients[CALORIES], start, end), activeDays),
+                average(sum(nutrients[PROTEIN], start, end), activeDays),
+                average(sum(nutrients[CARBOHYDRATES], start, end), activeDays),
+                average(sum(nutrients[FAT], start, end), activeDays)
+        );
+    }
+
+    PeriodicSummaryStats.PeriodStats periodStatsFrom(LocalDate from, int totalDays) {
+        NutritionTotals totals = totalsFrom(from);
+        return PeriodicSummaryStats.PeriodStats.builder()
+                .totalMeals((int) totals.mealCount())
+                .totalDays(totalDays)
+                .activeDays((int) totals.activeDays())
+                .avgCalories(totals.avgCalories())
+                .totalCalories(totals.totalCalories())
+                .avgProtein(totals.avgProteinG())
+                .avgCarbs(totals.avgCarbohydratesG())
+                .avgFat(totals.avgFatG())
+                .build();
+    }
+
+    private int offset(LocalDate date) {
+        return (int) ChronoUnit.DAYS.between(firstDay, date);
+    }
+
+    private int clampedOffset(LocalDate date) {
+        return Math.max(0, Math.min(days, offset(date)));
+    }
+
+    private long activeDays(int start, int end) {
+        long active = 0;
+        for (int i = start; i < end; i++) {
+            if (mealCounts[i] > 0) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    private long sum(int[] column, int start, int end) {
+        long total = 0;
+        for (int i = start; i < end; i++) {
+            total += column[i];
+        }
+        return total;
+    }
+
+    private double sum(double[] column, int start, int end) {
+        double s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = start;
+        for (; i + 3 < end; i += 4) {
+            s0 += column[i];
+            s1 += column[i + 1];
+            s2 += column[i + 2];
+            s3 += column[i + 3];
+        }
+        for (; i < end; i++) {
+            s0 += column[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static double average(double total, long activeDays) {
+        return activeDays > 0 ? total / activeDays : 0.0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.nutritheous.statistics;
+
+import com.nutritheous.common.exception.BadRequestException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket size of a nutrition series. {@link #unit} is the Postgres date_trunc field;
+ * weeks start on Monday (ISO), as date_trunc does.
+ */
+public enum SeriesGranularity {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month"),
+    YEAR("year");
+
+    private final String unit;
+
+    SeriesGranularity(String unit) {
+        this.unit = unit;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Start of the bucket containing the date.
+     */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    /**
+     * Start of the following bucket.
+     */
+    public LocalDate next(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+            case YEAR -> bucketStart.plusYears(1);
+        };
+    }
+
+    /**
+     * Number of buckets the range touches, counting partial buckets at either end.
+     */
+    public long bucketCount(LocalDate startDate, LocalDate endDate) {
+        ChronoUnit chronoUnit = switch (this) {
+            case DAY -> ChronoUnit.DAYS;
+            case WEEK -> ChronoUnit.WEEKS;
+            case MONTH -> ChronoUnit.MONTHS;
+            case YEAR -> ChronoUnit.YEARS;
+        };
+        return chronoUnit.between(truncate(startDate), truncate(endDate)) + 1;
+    }
+
+    /**
+     * Default range start when the client does not pass one.
+     */
+    public LocalDate defaultStart(LocalDate today) {
+        return switch (this) {
+            case DAY -> today.minusDays(29);
+            case WEEK -> today.minusWeeks(11);
+            case MONTH -> today.minusMonths(11);
+            case YEAR -> today.minusYears(4);
+        };
+    }
+
+    public static SeriesGranularity fromUnit(String unit) {
+        for (SeriesGranularity granularity : values()) {
+            if (granularity.unit.equalsIgnoreCase(unit)) {
+                return granularity;
+            }
+        }
+        throw new BadRequestException("Unknown granularity '" + unit + "', expected day, week, month or year");
+    }
+}
@@ -0,0 +1,217 @@
+package com.nutritheous.statistics;
+
+import com.nutritheous.common.cache.CacheInvalidationBus;
+import com.nutritheous.common.cache.RemoteInvalidationEvent;
+import com.nutritheous.common.concurrency.AdaptiveConcurrencyLimiter;
+import com.nutritheous.common.exception.ServiceUnavailableException;
+import com.nutritheous.meal.MealDataChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of statistics results, keyed by (user, endpoint and range).
+ *
+ * Results only change when the user writes a meal, so a user's entries are dropped as soon as a
+ * {@link MealDataChangedEvent} for that user commits. Users are kept in LRU order and the least
+ * recently used ones are evicted once {@code maxUsers} is reached. Each user holds at most
+ * {@code maxEntriesPerUser} results, also in LRU order, which bounds the total memory.
+ *
+ * Writes on other nodes arrive through {@link CacheInvalidationBus}; each entry also expires
+ * {@code ttl} after it was loaded, in case an invalidation is lost.
+ *
+ * Misses run under the statistics {@link AdaptiveConcurrencyLimiter}, so only the queries that
+ * reach the database are limited and feed its latency samples; hits are never shed.
+ */
+@Component
+@Slf4j
+public class StatisticsCache {
+
+    private static final long SHED_RETRY_AFTER_SECONDS = 1;
+
+    private final boolean enabled;
+    private final int maxEntriesPerUser;
+    private final long ttlNanos;
+    private final Map<UUID, UserEntries> users;
+    private final AdaptiveConcurrencyLimiter missLimiter;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private final Counter evictions;
+    private final Counter entryEvictions;
+
+    public StatisticsCache(
+            MeterRegistry meterRegistry,
+            @Value("${statistics.cache.enabled:true}") boolean enabled,
+            @Value("${statistics.cache.max-users:10000}") int maxUsers,
+            @Value("${statistics.cache.max-entries-per-user:32}") int maxEntriesPerUser,
+            @Value("${statistics.cache.ttl:PT10M}") Duration ttl,
+            @Value("${concurrency-limit.enabled:true}") boolean limitEnabled,
+            @Value("${concurrency-limit.statistics.initial:20}") int limitInitial,
+            @Value("${concurrency-limit.statistics.max:200}") int limitMax,
+            @Value("${concurrency-limit.min:2}") int limitMin,
+            @Value("${concurrency-limit.rtt-tolerance:1.5}") double rttTolerance) {
+        this.enabled = enabled;
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.ttlNanos = ttl.toNanos();
+        this.hits = meterRegistry.counter("statistics.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("statistics.cache.requests", "result", "miss");
+        this.invalidations = meterRegistry.counter("statistics.cache.invalidations");
+        this.evictions = meterRegistry.counter("statistics.cache.evictions");
+        this.entryEvictions = meterRegistry.counter("statistics.cache.entry.evictions");
+        this.users = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, UserEntries> eldest) {
+                boolean evict = size() > maxUsers;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+        Gauge.builder("statistics.cache.users", this, StatisticsCache::size).register(meterRegistry);
+        this.missLimiter = limitEnabled
+                ? new AdaptiveConcurrencyLimiter("statistics", limitInitial, limitMin, limitMax, rttTolerance, meterRegistry)
+                : null;
+    }
+
+    /**
+     * Returns the cached result for the key or computes and caches it.
+     * A result computed while the user's meals changed is returned but not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID userId, String key, Supplier<T> loader) {
+        if (!enabled) {
+            return load(loader);
+        }
+
+        UserEntries entries;
+        long now = System.nanoTime();
+        synchronized (users) {
+            entries = users.get(userId);
+            if (entries == null) {
+                entries = new UserEntries(maxEntriesPerUser, entryEvictions);
+                users.put(userId, entries);
+            }
+            Entry cached = entries.values.get(key);
+            if (cached != null) {
+                if (now - cached.loadedAt() <= ttlNanos) {
+                    hits.increment();
+                    return (T) cached.value();
+                }
+                entries.values.remove(key);
+            }
+        }
+
+        misses.increment();
+        T value = load(loader);
+
+        synchronized (users) {
+            // The user's entries are replaced on invalidation, so a stale result never lands in the cache.
+            // The TTL counts from the start of the load, the newest data the result can reflect.
+            if (value != null && users.get(userId) == entries) {
+                entries.values.put(key, new Entry(value, now));
+            }
+        }
+        return value;
+    }
+
+    private <T> T load(Supplier<T> loader) {
+        if (missLimiter == null) {
+            return loader.get();
+        }
+        int inFlightAtStart = missLimiter.inFlight();
+        if (!missLimiter.tryAcquire()) {
+            log.warn("🛑 Shedding statistics query - {} concurrency limit reached", missLimiter.getName());
+            throw new ServiceUnavailableException("Server is busy, please retry shortly", SHED_RETRY_AFTER_SECONDS);
+        }
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T value = loader.get();
+            succeeded = true;
+            return value;
+        } finally {
+            if (succeeded) {
+                missLimiter.onSuccess(System.nanoTime() - start, inFlightAtStart + 1);
+            } else {
+                missLimiter.onDropped();
+            }
+        }
+    }
+
+    public void invalidate(UUID userId) {
+        boolean removed;
+        synchronized (users) {
+            removed = users.remove(userId) != null;
+        }
+        if (removed) {
+            invalidations.increment();
+            log.debug("Invalidated statistics cache for user {}", userId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (users) {
+            users.clear();
+        }
+        invalidations.increment();
+        log.debug("Invalidated statistics cache for all users");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMealDataChanged(MealDataChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    @EventListener
+    public void onRemoteInvalidation(RemoteInvalidationEvent event) {
+        if (!event.topic().equals(CacheInvalidationBus.TOPIC_MEALS)) {
+            return;
+        }
+        if (event.isFlush()) {
+            invalidateAll();
+        } else {
+            invalidate(event.id());
+        }
+    }
+
+    private int size() {
+        synchronized (users) {
+            return users.size();
+        }
+    }
+
+    private record Entry(Object value, long loadedAt) {
+    }
+
+    private static final class UserEntries {
+        private final Map<String, Entry> values;
+
+        private UserEntries(int maxEntries, Counter evictions) {
+            // Access-ordered, so a full user drops its least recently read result instead of caching nothing new
+            this.values = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    boolean evict = size() > maxEntries;
+                    if (evict) {
+                        evictions.increment();
+                    }
+                    return evict;
+                }
+            };
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.nutritheous.statistics;
 
 import com.nutritheous.auth.User;
+import com.nutritheous.common.exception.BadRequestException;
+import com.nutritheous.statistics.dto.ChartSeries;
 import com.nutritheous.statistics.dto.DailyNutritionStats;
+import com.nutritheous.statistics.dto.EnergyBalance;
 import com.nutritheous.statistics.dto.MealTypeDistribution;
+import com.nutritheous.statistics.dto.NutritionSeries;
 import com.nutritheous.statistics.dto.NutritionSummary;
+import com.nutritheous.statistics.dto.NutritionTrends;
 import com.nutritheous.statistics.dto.PeriodicSummaryStats;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -18,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.List;
 
 @RestController
@@ -28,6 +34,7 @@ import java.util.List;
 public class StatisticsController {
 
     private final StatisticsService statisticsService;
+    private final TrendsService trendsService;
 
     @GetMapping("/daily")
     @Operation(
@@ -127,4 +134,151 @@ public class StatisticsController {
         PeriodicSummaryStats stats = statisticsService.getPeriodicSummaryStats(user.getId());
         return ResponseEntity.ok(stats);
     }
+
+    @GetMapping("/series")
+    @Operation(
+            summary = "Get a nutrition time series",
+            description = "Returns nutrient totals per day, week, month or year, aggregated server-side. "
+                    + "Only the requested nutrients are included, so long ranges cost a handful of points."
+    )
+    public ResponseEntity<NutritionSeries> getNutritionSeries(
+            @AuthenticationPrincipal User user,
+            @Parameter(description = "Bucket size: day, week, month or year", example = "week")
+            @RequestParam(defaultValue = "day") String granularity,
+            @Parameter(description = "Nutrients to include (defaults to calories, protein, carbohydrates, fat)",
+                    example = "calories,protein")
+            @RequestParam(required = false) List<String> nutrients,
+            @Parameter(description = "Start date (defaults depend on granularity)", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date (defaults to today in the given time zone)", example = "2024-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "IANA time zone of the user (defaults to the server zone)", example = "Europe/Berlin")
+            @RequestParam(required = false) String timeZone
+    ) {
+        SeriesRequest request = SeriesRequest.resolve(granularity, nutrients, startDate, endDate, timeZone);
+        NutritionSeries series = statisticsService.getNutritionSeries(
+                user.getId(), request.granularity(), request.nutrients(), request.start(), request.end(), request.zone());
+        return ResponseEntity.ok(series);
+    }
+
+    @GetMapping("/series/chart")
+    @Operation(
+            summary = "Get a chart-ready nutrition time series",
+            description = "Same data as /series as parallel arrays (dates, mealCounts, one array per nutrient) with "
+                    + "empty buckets filled, optionally downsampled server-side with LTTB to maxPoints points"
+    )
+    public ResponseEntity<ChartSeries> getChartSeries(
+            @AuthenticationPrincipal User user,
+            @Parameter(description = "Bucket size: day, week, month or year", example = "day")
+            @RequestParam(defaultValue = "day") String granularity,
+            @Parameter(description = "Nutrients to include (defaults to calories, protein, carbohydrates, fat); "
+                    + "the first one drives downsampling", example = "calories,protein")
+            @RequestParam(required = false) List<String> nutrients,
+            @Parameter(description = "Start date (defaults depend on granularity)", example = "2022-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date (defaults to today in the given time zone)", example = "2024-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "IANA time zone of the user (defaults to the server zone)", example = "Europe/Berlin")
+            @RequestParam(required = false) String timeZone,
+            @Parameter(description = "Maximum number of points to return (at least 3); omit to return every bucket",
+                    example = "300")
+            @RequestParam(required = false) Integer maxPoints
+    ) {
+        if (maxPoints != null && maxPoints < 3) {
+            throw new BadRequestException("maxPoints must be at least 3");
+        }
+        SeriesRequest request = SeriesRequest.resolve(granularity, nutrients, startDate, endDate, timeZone);
+        ChartSeries series = statisticsService.getChartSeries(
+                user.getId(), request.granularity(), request.nutrients(), request.start(), request.end(), request.zone(),
+                maxPoints);
+        return ResponseEntity.ok(series);
+    }
+
+    @GetMapping("/energy-balance")
+    @Operation(
+            summary = "Get energy balance",
+            description = "Returns daily and cumulative calorie surplus/deficit against the estimated calories "
+                    + "burnt per day from the user profile. Requires age, height, weight, sex and activity level."
+    )
+    public ResponseEntity<EnergyBalance> getEnergyBalance(
+            @AuthenticationPrincipal User user,
+            @Parameter(description = "Start date (defaults to 30 days ago)", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date (defaults to today)", example = "2024-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        Integer tdee = user.getEstimatedCaloriesBurntPerDay();
+        if (tdee == null) {
+            throw new BadRequestException(
+                    "Complete your profile (age, height, weight, sex and activity level) to compute energy balance");
+        }
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(30);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("startDate must not be after endDate");
+        }
+
+        EnergyBalance balance = statisticsService.getEnergyBalance(user.getId(), tdee, start, end);
+        return ResponseEntity.ok(balance);
+    }
+
+    @GetMapping("/trends")
+    @Operation(
+            summary = "Get nutrition trends",
+            description = "Returns 7- and 30-day moving averages of calories and macros, current and longest "
+                    + "logging streaks, and week-over-week changes"
+    )
+    public ResponseEntity<NutritionTrends> getTrends(
+            @AuthenticationPrincipal User user,
+            @Parameter(description = "IANA time zone of the user (defaults to the server zone)", example = "Europe/Berlin")
+            @RequestParam(required = false) String timeZone
+    ) {
+        NutritionTrends trends = trendsService.getTrends(user.getId(), SeriesRequest.resolveZone(timeZone));
+        return ResponseEntity.ok(trends);
+    }
+
+    /**
+     * Series query parameters with defaults applied.
+     */
+    private record SeriesRequest(
+            SeriesGranularity granularity,
+            List<Nutrient> nutrients,
+            LocalDate start,
+            LocalDate end,
+            ZoneId zone
+    ) {
+
+        static SeriesRequest resolve(
+                String granularity,
+                List<String> nutrients,
+                LocalDate startDate,
+                LocalDate endDate,
+                String timeZone
+        ) {
+            SeriesGranularity seriesGranularity = SeriesGranularity.fromUnit(granularity);
+            ZoneId zone = resolveZone(timeZone);
+            LocalDate end = endDate != null ? endDate : LocalDate.now(zone);
+            LocalDate start = startDate != null ? startDate : seriesGranularity.defaultStart(end);
+            if (start.isAfter(end)) {
+                throw new BadRequestException("startDate must not be after endDate");
+            }
+
+            List<Nutrient> requested = nutrients == null || nutrients.isEmpty()
+                    ? List.of(Nutrient.CALORIES, Nutrient.PROTEIN, Nutrient.CARBOHYDRATES, Nutrient.FAT)
+                    : nutrients.stream().map(Nutrient::fromKey).distinct().toList();
+
+            return new SeriesRequest(seriesGranularity, requested, start, end, zone);
+        }
+
+        static ZoneId resolveZone(String timeZone) {
+            if (timeZone == null || timeZone.isBlank()) {
+                return ZoneId.systemDefault();
+            }
+            try {
+                return ZoneId.of(timeZone);
+            } catch (Exception e) {
+                throw new BadRequestException("Unknown time zone: " + timeZone);
+            }
+        }
+    }
 }
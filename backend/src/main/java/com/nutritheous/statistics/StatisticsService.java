@@ -1,17 +1,22 @@
 package com.nutritheous.statistics;
 
+import com.nutritheous.common.exception.BadRequestException;
 import com.nutritheous.meal.Meal;
-import com.nutritheous.meal.MealRepository;
+import com.nutritheous.statistics.dto.ChartSeries;
+import com.nutritheous.statistics.dto.DailyCalories;
 import com.nutritheous.statistics.dto.DailyNutritionStats;
+import com.nutritheous.statistics.dto.EnergyBalance;
 import com.nutritheous.statistics.dto.MealTypeDistribution;
+import com.nutritheous.statistics.dto.NutritionSeries;
 import com.nutritheous.statistics.dto.NutritionSummary;
+import com.nutritheous.statistics.dto.NutritionTotals;
 import com.nutritheous.statistics.dto.PeriodicSummaryStats;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -19,26 +24,148 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StatisticsService {
 
-    private final MealRepository mealRepository;
+    private static final int MAX_SERIES_BUCKETS = 10000;
+
+    private final DailyNutritionRepository dailyNutritionRepository;
+    private final StatisticsCache statisticsCache;
 
     public List<DailyNutritionStats> getDailyNutritionStats(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Meal> meals = mealRepository.findByUserIdAndMealTimeBetweenOrderByMealTimeDesc(userId, startDate, endDate);
+        return statisticsCache.get(userId, cacheKey("daily", startDate, endDate),
+                () -> dailyNutritionRepository.findDailyStats(userId, startDate.toLocalDate(), endDate.toLocalDate()));
+    }
 
-        // Group meals by date
-        Map<LocalDate, List<Meal>> mealsByDate = meals.stream()
-                .collect(Collectors.groupingBy(meal -> meal.getMealTime().toLocalDate()));
+    public NutritionSummary getNutritionSummary(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return statisticsCache.get(userId, cacheKey("summary", startDate, endDate),
+                () -> loadNutritionSummary(userId, startDate, endDate));
+    }
 
-        // Calculate stats for each day
-        return mealsByDate.entrySet().stream()
-                .map(entry -> calculateDailyStats(entry.getKey(), entry.getValue()))
-                .sorted(Comparator.comparing(DailyNutritionStats::getDate))
-                .collect(Collectors.toList());
+    public List<MealTypeDistribution> getMealTypeDistribution(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return statisticsCache.get(userId, cacheKey("distribution", startDate, endDate),
+                () -> calculateMealTypeDistribution(sumRange(userId, startDate, endDate)));
     }
 
-    public NutritionSummary getNutritionSummary(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Meal> meals = mealRepository.findByUserIdAndMealTimeBetweenOrderByMealTimeDesc(userId, startDate, endDate);
+    /**
+     * Get combined summary stats for multiple periods (week, month, 6 months)
+     */
+    public PeriodicSummaryStats getPeriodicSummaryStats(UUID userId) {
+        LocalDate now = LocalDate.now();
+        return statisticsCache.get(userId, "periodic:" + now, () -> loadPeriodicSummaryStats(userId, now));
+    }
+
+    /**
+     * Daily and cumulative surplus/deficit against the user's TDEE, from one indexed read of the
+     * daily rollup. The TDEE is part of the cache key, so a profile change yields a fresh result
+     * without an explicit invalidation.
+     */
+    public EnergyBalance getEnergyBalance(UUID userId, int estimatedCaloriesBurntPerDay,
+                                          LocalDate startDate, LocalDate endDate) {
+        String key = "energy:" + estimatedCaloriesBurntPerDay + ":" + startDate + ":" + endDate;
+        return statisticsCache.get(userId, key,
+                () -> loadEnergyBalance(userId, estimatedCaloriesBurntPerDay, startDate, endDate));
+    }
+
+    /**
+     * Totals per day/week/month/year bucket, summed by Postgres over the daily rollup.
+     * The range start is moved back to the start of its bucket so the first point is complete.
+     *
+     * @throws BadRequestException if the range spans more buckets than a series may hold
+     */
+    public NutritionSeries getNutritionSeries(
+            UUID userId,
+            SeriesGranularity granularity,
+            List<Nutrient> nutrients,
+            LocalDate startDate,
+            LocalDate endDate,
+            ZoneId timeZone
+    ) {
+        if (granularity.bucketCount(startDate, endDate) > MAX_SERIES_BUCKETS) {
+            throw new BadRequestException("Range too large for " + granularity.getUnit()
+                    + " granularity, use a coarser granularity or a shorter range");
+        }
+        LocalDate start = granularity.truncate(startDate);
+        String key = "series:" + granularity.getUnit() + ":" + start + ":" + endDate + ":" + nutrients;
+        NutritionSeries series = statisticsCache.get(userId, key,
+                () -> loadNutritionSeries(userId, granularity, nutrients, start, endDate));
+        return series.toBuilder().timeZone(timeZone.getId()).build();
+    }
+
+    /**
+     * Same data as {@link #getNutritionSeries} in parallel arrays, with empty buckets filled with zeros
+     * and, when {@code maxPoints} is set, downsampled with LTTB. Point selection is driven by the first
+     * requested nutrient and applied to every array so they stay aligned.
+     */
+    public ChartSeries getChartSeries(
+            UUID userId,
+            SeriesGranularity granularity,
+            List<Nutrient> nutrients,
+            LocalDate startDate,
+            LocalDate endDate,
+            ZoneId timeZone,
+            Integer maxPoints
+    ) {
+        NutritionSeries series = getNutritionSeries(userId, granularity, nutrients, startDate, endDate, timeZone);
+
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate bucket = series.getStartDate(); !bucket.isAfter(endDate); bucket = granularity.next(bucket)) {
+            dates.add(bucket);
+        }
+
+        int size = dates.size();
+        int[] mealCounts = new int[size];
+        double[][] columns = new double[nutrients.size()][size];
+        int index = 0;
+        for (NutritionSeries.Point point : series.getPoints()) {
+            while (!dates.get(index).equals(point.getPeriodStart())) {
+                index++;
+            }
+            mealCounts[index] = point.getMealCount();
+            for (int n = 0; n < nutrients.size(); n++) {
+                columns[n][index] = point.getTotals().get(nutrients.get(n).getKey());
+            }
+        }
+
+        int[] keep = Lttb.selectIndices(columns[0], maxPoints != null ? maxPoints : size);
+        Map<String, double[]> values = new LinkedHashMap<>();
+        for (int n = 0; n < nutrients.size(); n++) {
+            double[] sampled = new double[keep.length];
+            for (int i = 0; i < keep.length; i++) {
+                sampled[i] = Math.round(columns[n][keep[i]] * 10) / 10.0;
+            }
+            values.put(nutrients.get(n).getKey(), sampled);
+        }
+        List<LocalDate> sampledDates = new ArrayList<>(keep.length);
+        int[] sampledMealCounts = new int[keep.length];
+        for (int i = 0; i < keep.length; i++) {
+            sampledDates.add(dates.get(keep[i]));
+            sampledMealCounts[i] = mealCounts[keep[i]];
+        }
+
+        return ChartSeries.builder()
+                .granularity(granularity.getUnit())
+                .timeZone(timeZone.getId())
+                .totalPoints(size)
+                .downsampled(keep.length < size)
+                .dates(sampledDates)
+                .mealCounts(sampledMealCounts)
+                .values(values)
+                .build();
+    }
+
+    /**
+     * Ranges are resolved to whole days by the rollup, so the key only needs the dates.
+     */
+    private static String cacheKey(String endpoint, LocalDateTime startDate, LocalDateTime endDate) {
+        return endpoint + ":" + startDate.toLocalDate() + ":" + endDate.toLocalDate();
+    }
+
+    /**
+     * Reads the range once and derives the daily list, averages and distribution from the same rows.
+     */
+    private NutritionSummary loadNutritionSummary(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
+        List<DailyNutrition> days = dailyNutritionRepository.findByUserIdAndMealDateBetweenOrderByMealDate(
+                userId, startDate.toLocalDate(), endDate.toLocalDate());
 
-        if (meals.isEmpty()) {
+        if (days.isEmpty()) {
             return NutritionSummary.builder()
                     .totalMeals(0L)
                     .avgCaloriesPerDay(0.0)
@@ -50,220 +177,145 @@ public class StatisticsService {
                     .build();
         }
 
-        // Calculate daily stats
-        List<DailyNutritionStats> dailyStats = getDailyNutritionStats(userId, startDate, endDate);
-
-        // Calculate averages
-        long numberOfDays = dailyStats.size();
-        double avgCalories = dailyStats.stream()
-                .mapToInt(stats -> stats.getTotalCalories() != null ? stats.getTotalCalories() : 0)
-                .average()
-                .orElse(0.0);
-
-        double avgProtein = dailyStats.stream()
-                .mapToDouble(stats -> stats.getTotalProteinG() != null ? stats.getTotalProteinG() : 0.0)
-                .average()
-                .orElse(0.0);
-
-        double avgCarbs = dailyStats.stream()
-                .mapToDouble(stats -> stats.getTotalCarbohydratesG() != null ? stats.getTotalCarbohydratesG() : 0.0)
-                .average()
-                .orElse(0.0);
-
-        double avgFat = dailyStats.stream()
-                .mapToDouble(stats -> stats.getTotalFatG() != null ? stats.getTotalFatG() : 0.0)
-                .average()
-                .orElse(0.0);
-
-        // Calculate meal type distribution
-        List<MealTypeDistribution> mealTypeDistribution = calculateMealTypeDistribution(meals);
+        List<DailyNutritionStats> dailyStats = new ArrayList<>(days.size());
+        for (DailyNutrition day : days) {
+            dailyStats.add(toDailyStats(day));
+        }
+        NutritionTotals totals = NutrientColumns.of(days).totalsFrom(startDate.toLocalDate());
 
         return NutritionSummary.builder()
-                .totalMeals((long) meals.size())
-                .avgCaloriesPerDay(avgCalories)
-                .avgProteinPerDay(avgProtein)
-                .avgCarbsPerDay(avgCarbs)
-                .avgFatPerDay(avgFat)
+                .totalMeals(totals.mealCount())
+                .avgCaloriesPerDay(totals.avgCalories())
+                .avgProteinPerDay(totals.avgProteinG())
+                .avgCarbsPerDay(totals.avgCarbohydratesG())
+                .avgFatPerDay(totals.avgFatG())
                 .dailyStats(dailyStats)
-                .mealTypeDistribution(mealTypeDistribution)
+                .mealTypeDistribution(calculateMealTypeDistribution(totals))
                 .build();
     }
 
-    public List<MealTypeDistribution> getMealTypeDistribution(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Meal> meals = mealRepository.findByUserIdAndMealTimeBetweenOrderByMealTimeDesc(userId, startDate, endDate);
-        return calculateMealTypeDistribution(meals);
+    /**
+     * Aggregates are computed by Postgres over the daily rollup. The rollup is kept per calendar
+     * day, so the range is widened to whole days.
+     */
+    private NutritionTotals sumRange(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
+        return dailyNutritionRepository.sumRange(userId, startDate.toLocalDate(), endDate.toLocalDate());
     }
 
-    private DailyNutritionStats calculateDailyStats(LocalDate date, List<Meal> meals) {
-        int totalCalories = meals.stream()
-                .mapToInt(meal -> meal.getCalories() != null ? meal.getCalories() : 0)
-                .sum();
-
-        double totalProtein = meals.stream()
-                .mapToDouble(meal -> meal.getProteinG() != null ? meal.getProteinG() : 0.0)
-                .sum();
-
-        double totalFat = meals.stream()
-                .mapToDouble(meal -> meal.getFatG() != null ? meal.getFatG() : 0.0)
-                .sum();
-
-        double totalSaturatedFat = meals.stream()
-                .mapToDouble(meal -> meal.getSaturatedFatG() != null ? meal.getSaturatedFatG() : 0.0)
-                .sum();
-
-        double totalCarbs = meals.stream()
-                .mapToDouble(meal -> meal.getCarbohydratesG() != null ? meal.getCarbohydratesG() : 0.0)
-                .sum();
+    private NutritionSeries loadNutritionSeries(
+            UUID userId,
+            SeriesGranularity granularity,
+            List<Nutrient> nutrients,
+            LocalDate startDate,
+            LocalDate endDate
+    ) {
+        List<Object[]> rows = dailyNutritionRepository.sumByPeriod(userId, granularity.getUnit(), startDate, endDate);
+
+        List<NutritionSeries.Point> points = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Double> totals = new LinkedHashMap<>();
+            for (Nutrient nutrient : nutrients) {
+                totals.put(nutrient.getKey(), ((Number) row[3 + nutrient.ordinal()]).doubleValue());
+            }
+            points.add(NutritionSeries.Point.builder()
+                    .periodStart(toLocalDate(row[0]))
+                    .activeDays(((Number) row[1]).intValue())
+                    .mealCount(((Number) row[2]).intValue())
+                    .totals(totals)
+                    .build());
+        }
 
-        double totalFiber = meals.stream()
-                .mapToDouble(meal -> meal.getFiberG() != null ? meal.getFiberG() : 0.0)
-                .sum();
+        return NutritionSeries.builder()
+                .granularity(granularity.getUnit())
+                .startDate(startDate)
+                .endDate(endDate)
+                .nutrients(nutrients.stream().map(Nutrient::getKey).collect(Collectors.toList()))
+                .points(points)
+                .build();
+    }
 
-        double totalSugar = meals.stream()
-                .mapToDouble(meal -> meal.getSugarG() != null ? meal.getSugarG() : 0.0)
-                .sum();
+    private EnergyBalance loadEnergyBalance(UUID userId, int tdee, LocalDate startDate, LocalDate endDate) {
+        List<DailyCalories> intake = dailyNutritionRepository.findDailyCalories(userId, startDate, endDate);
+
+        List<EnergyBalance.Day> days = new ArrayList<>(intake.size());
+        long totalIntake = 0;
+        long cumulative = 0;
+        for (DailyCalories day : intake) {
+            int balance = day.calories() - tdee;
+            totalIntake += day.calories();
+            cumulative += balance;
+            days.add(EnergyBalance.Day.builder()
+                    .date(day.date())
+                    .intake(day.calories())
+                    .balance(balance)
+                    .cumulativeBalance(cumulative)
+                    .build());
+        }
 
-        double totalSodium = meals.stream()
-                .mapToDouble(meal -> meal.getSodiumMg() != null ? meal.getSodiumMg() : 0.0)
-                .sum();
+        return EnergyBalance.builder()
+                .estimatedCaloriesBurntPerDay(tdee)
+                .loggedDays(days.size())
+                .totalIntake(totalIntake)
+                .totalBalance(cumulative)
+                .avgDailyBalance(days.isEmpty() ? 0.0 : (double) cumulative / days.size())
+                .days(days)
+                .build();
+    }
 
-        double totalCholesterol = meals.stream()
-                .mapToDouble(meal -> meal.getCholesterolMg() != null ? meal.getCholesterolMg() : 0.0)
-                .sum();
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
 
+    private DailyNutritionStats toDailyStats(DailyNutrition day) {
         return DailyNutritionStats.builder()
-                .date(date)
-                .totalCalories(totalCalories)
-                .totalProteinG(totalProtein)
-                .totalFatG(totalFat)
-                .totalSaturatedFatG(totalSaturatedFat)
-                .totalCarbohydratesG(totalCarbs)
-                .totalFiberG(totalFiber)
-                .totalSugarG(totalSugar)
-                .totalSodiumMg(totalSodium)
-                .totalCholesterolMg(totalCholesterol)
-                .mealCount(meals.size())
+                .date(day.getMealDate())
+                .totalCalories(day.getTotalCalories())
+                .totalProteinG(day.getTotalProteinG())
+                .totalFatG(day.getTotalFatG())
+                .totalSaturatedFatG(day.getTotalSaturatedFatG())
+                .totalCarbohydratesG(day.getTotalCarbohydratesG())
+                .totalFiberG(day.getTotalFiberG())
+                .totalSugarG(day.getTotalSugarG())
+                .totalSodiumMg(day.getTotalSodiumMg())
+                .totalCholesterolMg(day.getTotalCholesterolMg())
+                .mealCount(day.getMealCount())
                 .build();
     }
 
-    private List<MealTypeDistribution> calculateMealTypeDistribution(List<Meal> meals) {
-        if (meals.isEmpty()) {
+    private List<MealTypeDistribution> calculateMealTypeDistribution(NutritionTotals totals) {
+        if (totals.mealCount() == 0) {
             return Collections.emptyList();
         }
 
-        long totalMeals = meals.size();
-
-        Map<Meal.MealType, Long> countByType = meals.stream()
-                .filter(meal -> meal.getMealType() != null)
-                .collect(Collectors.groupingBy(Meal::getMealType, Collectors.counting()));
+        Map<Meal.MealType, Long> countByType = new EnumMap<>(Meal.MealType.class);
+        countByType.put(Meal.MealType.BREAKFAST, totals.breakfastCount());
+        countByType.put(Meal.MealType.LUNCH, totals.lunchCount());
+        countByType.put(Meal.MealType.DINNER, totals.dinnerCount());
+        countByType.put(Meal.MealType.SNACK, totals.snackCount());
 
         return countByType.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
                 .map(entry -> MealTypeDistribution.builder()
                         .mealType(entry.getKey().name())
                         .count(entry.getValue())
-                        .percentage((entry.getValue() * 100.0) / totalMeals)
+                        .percentage((entry.getValue() * 100.0) / totals.mealCount())
                         .build())
                 .sorted(Comparator.comparing(MealTypeDistribution::getMealType))
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get combined summary stats for multiple periods (week, month, 6 months)
+     * The widest range is read once into nutrient columns; each period is a range reduction over them.
      */
-    public PeriodicSummaryStats getPeriodicSummaryStats(UUID userId) {
-        LocalDate now = LocalDate.now();
+    private PeriodicSummaryStats loadPeriodicSummaryStats(UUID userId, LocalDate now) {
 
-        // Calculate stats for each period
-        PeriodicSummaryStats.PeriodStats weekStats = calculatePeriodStats(
-                userId,
-                now.minusDays(6).atStartOfDay(),
-                now.atTime(LocalTime.MAX),
-                7
-        );
-
-        PeriodicSummaryStats.PeriodStats monthStats = calculatePeriodStats(
-                userId,
-                now.minusDays(29).atStartOfDay(),
-                now.atTime(LocalTime.MAX),
-                30
-        );
-
-        PeriodicSummaryStats.PeriodStats sixMonthsStats = calculatePeriodStats(
-                userId,
-                now.minusMonths(6).atStartOfDay(),
-                now.atTime(LocalTime.MAX),
-                180
-        );
+        NutrientColumns columns = NutrientColumns.of(dailyNutritionRepository
+                .findByUserIdAndMealDateBetweenOrderByMealDate(userId, now.minusMonths(6), now));
 
         return PeriodicSummaryStats.builder()
-                .week(weekStats)
-                .month(monthStats)
-                .sixMonths(sixMonthsStats)
-                .build();
-    }
-
-    private PeriodicSummaryStats.PeriodStats calculatePeriodStats(
-            UUID userId,
-            LocalDateTime startDate,
-            LocalDateTime endDate,
-            int totalDays
-    ) {
-        List<DailyNutritionStats> dailyStats = getDailyNutritionStats(userId, startDate, endDate);
-
-        if (dailyStats.isEmpty()) {
-            return PeriodicSummaryStats.PeriodStats.builder()
-                    .totalMeals(0)
-                    .totalDays(totalDays)
-                    .activeDays(0)
-                    .avgCalories(0.0)
-                    .totalCalories(0.0)
-                    .avgProtein(0.0)
-                    .avgCarbs(0.0)
-                    .avgFat(0.0)
-                    .build();
-        }
-
-        int totalMeals = dailyStats.stream()
-                .mapToInt(DailyNutritionStats::getMealCount)
-                .sum();
-
-        int activeDays = (int) dailyStats.stream()
-                .filter(stats -> stats.getMealCount() > 0)
-                .count();
-
-        double totalCalories = dailyStats.stream()
-                .mapToDouble(stats -> stats.getTotalCalories() != null ? stats.getTotalCalories() : 0.0)
-                .sum();
-
-        double avgCalories = dailyStats.stream()
-                .mapToDouble(stats -> stats.getTotalCalories() != null ? stats.getTotalCalories() : 0.0)
-                .average()
-                .orElse(0.0);
-
-        double avgProtein = dailyStats.stream()
-                .mapToDouble(stats -> stats.getTotalProteinG() != null ? stats.getTotalProteinG() : 0.0)
-                .average()
-                .orElse(0.0);
-
-        double avgCarbs = dailyStats.stream()
-                .mapToDouble(stats -> stats.getTotalCarbohydratesG() != null ? stats.getTotalCarbohydratesG() : 0.0)
-                .average()
-                .orElse(0.0);
-
-        double avgFat = dailyStats.stream()
-                .mapToDouble(stats -> stats.getTotalFatG() != null ? stats.getTotalFatG() : 0.0)
-                .average()
-                .orElse(0.0);
-
-        return PeriodicSummaryStats.PeriodStats.builder()
-                .totalMeals(totalMeals)
-                .totalDays(totalDays)
-                .activeDays(activeDays)
-                .avgCalories(avgCalories)
-                .totalCalories(totalCalories)
-                .avgProtein(avgProtein)
-                .avgCarbs(avgCarbs)
-                .avgFat(avgFat)
+                .week(columns.periodStatsFrom(now.minusDays(6), 7))
+                .month(columns.periodStatsFrom(now.minusDays(29), 30))
+                .sixMonths(columns.periodStatsFrom(now.minusMonths(6), 180))
                 .build();
     }
 }
@@ -0,0 +1,86 @@
+package com.nutritheous.statistics;
+
+import com.nutritheous.statistics.dto.NutritionTotals;
+import com.nutritheous.statistics.dto.NutritionTrends;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Trend analytics (moving averages, streaks, week-over-week changes).
+ *
+ * Every window ends today and spans at most 30 days, so a request reads at most 30 daily rollup
+ * rows plus one user_streaks row, whatever the length of the user's history. Streaks are kept up
+ * to date on write by {@link DailyNutritionService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrendsService {
+
+    private static final int LONG_WINDOW_DAYS = 30;
+    private static final int SHORT_WINDOW_DAYS = 7;
+
+    private final DailyNutritionRepository dailyNutritionRepository;
+    private final UserStreakRepository userStreakRepository;
+    private final StatisticsCache statisticsCache;
+
+    public NutritionTrends getTrends(UUID userId, ZoneId timeZone) {
+        LocalDate today = LocalDate.now(timeZone);
+        NutritionTrends trends = statisticsCache.get(userId, "trends:" + today, () -> loadTrends(userId, today));
+        return trends.toBuilder().timeZone(timeZone.getId()).build();
+    }
+
+    private NutritionTrends loadTrends(UUID userId, LocalDate today) {
+        NutrientColumns columns = NutrientColumns.of(dailyNutritionRepository
+                .findByUserIdAndMealDateBetweenOrderByMealDate(userId, today.minusDays(LONG_WINDOW_DAYS - 1), today));
+
+        NutritionTotals thisWeek = columns.totalsBetween(today.minusDays(SHORT_WINDOW_DAYS - 1), today);
+        NutritionTotals previousWeek = columns.totalsBetween(
+                today.minusDays(2 * SHORT_WINDOW_DAYS - 1), today.minusDays(SHORT_WINDOW_DAYS));
+        NutritionTotals thirtyDays = columns.totalsBetween(today.minusDays(LONG_WINDOW_DAYS - 1), today);
+
+        Optional<UserStreak> streak = userStreakRepository.findById(userId);
+
+        return NutritionTrends.builder()
+                .asOf(today)
+                .currentStreak(streak.map(s -> s.currentStreak(today)).orElse(0))
+                .longestStreak(streak.map(UserStreak::getLongestStreak).orElse(0))
+                .lastLoggedDate(streak.map(UserStreak::getCurrentEnd).orElse(null))
+                .sevenDay(toMovingAverage(SHORT_WINDOW_DAYS, thisWeek))
+                .thirtyDay(toMovingAverage(LONG_WINDOW_DAYS, thirtyDays))
+                .weekOverWeek(NutritionTrends.WeekOverWeek.builder()
+                        .thisWeekLoggedDays((int) thisWeek.activeDays())
+                        .previousWeekLoggedDays((int) previousWeek.activeDays())
+                        .calories(change(thisWeek.avgCalories(), previousWeek.avgCalories(), previousWeek))
+                        .protein(change(thisWeek.avgProteinG(), previousWeek.avgProteinG(), previousWeek))
+                        .carbs(change(thisWeek.avgCarbohydratesG(), previousWeek.avgCarbohydratesG(), previousWeek))
+                        .fat(change(thisWeek.avgFatG(), previousWeek.avgFatG(), previousWeek))
+                        .build())
+                .build();
+    }
+
+    private NutritionTrends.MovingAverage toMovingAverage(int days, NutritionTotals totals) {
+        return NutritionTrends.MovingAverage.builder()
+                .days(days)
+                .loggedDays((int) totals.activeDays())
+                .avgCalories(totals.avgCalories())
+                .avgProtein(totals.avgProteinG())
+                .avgCarbs(totals.avgCarbohydratesG())
+                .avgFat(totals.avgFatG())
+                .build();
+    }
+
+    private NutritionTrends.Change change(double current, double previous, NutritionTotals previousWeek) {
+        Double percent = previousWeek.activeDays() > 0 && previous != 0
+                ? (current - previous) * 100.0 / previous
+                : null;
+        return NutritionTrends.Change.builder()
+                .absolute(current - previous)
+                .percent(percent)
+                .build();
+    }
+}
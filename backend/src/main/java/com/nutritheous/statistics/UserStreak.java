@@ -0,0 +1,54 @@
+package com.nutritheous.statistics;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Logging streak state of a user. Maintained by {@link DailyNutritionService}.
+ */
+@Entity
+@Table(name = "user_streaks")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStreak {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "current_start", nullable = false)
+    private LocalDate currentStart;
+
+    @Column(name = "current_end", nullable = false)
+    private LocalDate currentEnd;
+
+    @Column(name = "longest_streak", nullable = false)
+    private int longestStreak;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Length of the streak that is still alive on {@code today}: the user logged today,
+     * or logged yesterday and still has today to keep it going.
+     */
+    public int currentStreak(LocalDate today) {
+        if (currentEnd.isBefore(today.minusDays(1))) {
+            return 0;
+        }
+        return (int) ChronoUnit.DAYS.between(currentStart, currentEnd) + 1;
+    }
+}
@@ -0,0 +1,46 @@
+package com.nutritheous.statistics;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface UserStreakRepository extends JpaRepository<UserStreak, UUID> {
+
+    @Modifying
+    @Query(value = "DELETE FROM user_streaks WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUser(@Param("userId") UUID userId);
+
+    /**
+     * Recomputes a user's streaks from daily_nutrition (gaps-and-islands) and upserts them.
+     * Writes nothing when the user has no days; the caller then runs {@link #deleteByUser(UUID)}.
+     */
+    @Modifying
+    @Query(value = """
+            WITH islands AS (
+                SELECT MIN(meal_date) AS start_date, MAX(meal_date) AS end_date, COUNT(*) AS length
+                FROM (
+                    SELECT meal_date,
+                           meal_date - CAST(ROW_NUMBER() OVER (ORDER BY meal_date) AS INTEGER) AS grp
+                    FROM daily_nutrition
+                    WHERE user_id = :userId AND meal_count > 0
+                ) days
+                GROUP BY grp
+            )
+            INSERT INTO user_streaks (user_id, current_start, current_end, longest_streak, updated_at)
+            SELECT :userId, start_date, end_date, (SELECT MAX(length) FROM islands), CURRENT_TIMESTAMP
+            FROM islands
+            ORDER BY end_date DESC
+            LIMIT 1
+            ON CONFLICT (user_id) DO UPDATE SET
+                current_start = EXCLUDED.current_start,
+                current_end = EXCLUDED.current_end,
+                longest_streak = EXCLUDED.longest_streak,
+                updated_at = EXCLUDED.updated_at
+            """, nativeQuery = true)
+    int upsertFromDailyNutrition(@Param("userId") UUID userId);
+}
@@ -0,0 +1,43 @@
+package com.nutritheous.statistics.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented series for charts: index i of every array belongs to {@code dates[i]}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Chart-ready nutrition series with one array per field")
+public class ChartSeries {
+
+    @Schema(description = "Bucket size", example = "day")
+    private String granularity;
+
+    @Schema(description = "Time zone used to resolve 'today' for default ranges", example = "Europe/Berlin")
+    private String timeZone;
+
+    @Schema(description = "Number of buckets in the range before downsampling", example = "1095")
+    private int totalPoints;
+
+    @Schema(description = "Whether LTTB downsampling dropped points")
+    private boolean downsampled;
+
+    @Schema(description = "Bucket start dates; empty buckets are included with zero values")
+    private List<LocalDate> dates;
+
+    @Schema(description = "Meals per bucket")
+    private int[] mealCounts;
+
+    @Schema(description = "Totals per requested nutrient, rounded to one decimal")
+    private Map<String, double[]> values;
+}
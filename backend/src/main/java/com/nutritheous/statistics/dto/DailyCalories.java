@@ -0,0 +1,9 @@
+package com.nutritheous.statistics.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Calories of one logged day, read straight from the daily rollup.
+ */
+public record DailyCalories(LocalDate date, int calories) {
+}
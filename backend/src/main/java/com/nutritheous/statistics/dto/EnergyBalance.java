@@ -0,0 +1,56 @@
+package com.nutritheous.statistics.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Calorie intake compared with the estimated daily energy expenditure (TDEE)")
+public class EnergyBalance {
+
+    @Schema(description = "Estimated calories burnt per day from the user profile", example = "2400")
+    private int estimatedCaloriesBurntPerDay;
+
+    @Schema(description = "Days with at least one logged meal", example = "28")
+    private int loggedDays;
+
+    @Schema(description = "Total calories consumed on logged days", example = "63500")
+    private long totalIntake;
+
+    @Schema(description = "Total surplus (positive) or deficit (negative) over logged days", example = "-3700")
+    private long totalBalance;
+
+    @Schema(description = "Average surplus or deficit per logged day", example = "-132.1")
+    private double avgDailyBalance;
+
+    @Schema(description = "One entry per logged day; days without meals are skipped rather than counted as a full deficit")
+    private List<Day> days;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Day {
+
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate date;
+
+        @Schema(description = "Calories consumed", example = "2150")
+        private int intake;
+
+        @Schema(description = "Intake minus TDEE", example = "-250")
+        private int balance;
+
+        @Schema(description = "Running total of the balance up to and including this day", example = "-1200")
+        private long cumulativeBalance;
+    }
+}
@@ -0,0 +1,60 @@
+package com.nutritheous.statistics.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Nutrition totals bucketed by day, week, month or year")
+public class NutritionSeries {
+
+    @Schema(description = "Bucket size", example = "week")
+    private String granularity;
+
+    @Schema(description = "Time zone used to resolve 'today' for default ranges", example = "Europe/Berlin")
+    private String timeZone;
+
+    @Schema(description = "Start of the first bucket", example = "2024-01-01")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @Schema(description = "Last day included", example = "2024-03-31")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    @Schema(description = "Nutrients included in each point", example = "[\"calories\", \"protein\"]")
+    private List<String> nutrients;
+
+    @Schema(description = "One point per bucket that has meals, in chronological order")
+    private List<Point> points;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+
+        @Schema(description = "First day of the bucket", example = "2024-01-01")
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate periodStart;
+
+        @Schema(description = "Days in the bucket with at least one meal", example = "6")
+        private int activeDays;
+
+        @Schema(description = "Number of meals in the bucket", example = "21")
+        private int mealCount;
+
+        @Schema(description = "Total per requested nutrient (calories in kcal, macros in g, sodium and cholesterol in mg)")
+        private Map<String, Double> totals;
+    }
+}
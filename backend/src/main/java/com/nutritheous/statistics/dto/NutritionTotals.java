@@ -0,0 +1,20 @@
+package com.nutritheous.statistics.dto;
+
+/**
+ * Range-level aggregates over daily_nutrition, computed by a single SQL query.
+ * {@code activeDays} counts days with at least one meal; averages are per active day.
+ */
+public record NutritionTotals(
+        long activeDays,
+        long mealCount,
+        long breakfastCount,
+        long lunchCount,
+        long dinnerCount,
+        long snackCount,
+        long totalCalories,
+        double avgCalories,
+        double avgProteinG,
+        double avgCarbohydratesG,
+        double avgFatG
+) {
+}
@@ -0,0 +1,93 @@
+package com.nutritheous.statistics.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Moving averages, logging streaks and week-over-week changes")
+public class NutritionTrends {
+
+    @Schema(description = "Day the trends are computed for", example = "2024-03-15")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate asOf;
+
+    @Schema(description = "Time zone used to resolve the current day", example = "Europe/Berlin")
+    private String timeZone;
+
+    @Schema(description = "Consecutive logged days ending today or yesterday", example = "12")
+    private int currentStreak;
+
+    @Schema(description = "Longest run of consecutive logged days", example = "41")
+    private int longestStreak;
+
+    @Schema(description = "Last day with a logged meal", example = "2024-03-15")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate lastLoggedDate;
+
+    @Schema(description = "Averages over the last 7 days")
+    private MovingAverage sevenDay;
+
+    @Schema(description = "Averages over the last 30 days")
+    private MovingAverage thirtyDay;
+
+    @Schema(description = "Last 7 days compared with the 7 days before")
+    private WeekOverWeek weekOverWeek;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MovingAverage {
+
+        @Schema(description = "Window length in days", example = "7")
+        private int days;
+
+        @Schema(description = "Days in the window with at least one meal; averages are per logged day", example = "6")
+        private int loggedDays;
+
+        private double avgCalories;
+        private double avgProtein;
+        private double avgCarbs;
+        private double avgFat;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WeekOverWeek {
+
+        @Schema(description = "Logged days in the last 7 days", example = "6")
+        private int thisWeekLoggedDays;
+
+        @Schema(description = "Logged days in the 7 days before", example = "5")
+        private int previousWeekLoggedDays;
+
+        private Change calories;
+        private Change protein;
+        private Change carbs;
+        private Change fat;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+
+        @Schema(description = "Difference of the per-logged-day averages", example = "-120.5")
+        private double absolute;
+
+        @Schema(description = "Relative difference in percent; null when the previous week has no data", example = "-5.3")
+        private Double percent;
+    }
+}
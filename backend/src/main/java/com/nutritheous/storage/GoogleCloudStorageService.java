@@ -1,7 +1,10 @@
 package com.nutritheous.storage;
 
+import com.google.api.gax.paging.Page;
+import com.google.cloud.BatchResult;
 import com.google.cloud.storage.*;
 import com.nutritheous.common.exception.FileStorageException;
+import com.nutritheous.common.metrics.PipelineMetrics;
 import com.nutritheous.image.ImageCompressionService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,6 +14,10 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -22,12 +29,16 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class GoogleCloudStorageService {
 
+    // GCS rejects JSON API batch requests with more than 100 calls
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final Storage storage;
     private final String bucketName;
     private final String projectId;
     private final int urlExpiry;
     private final int imageUrlExpiry;
     private final ImageCompressionService imageCompressionService;
+    private final PipelineMetrics pipelineMetrics;
 
     public GoogleCloudStorageService(
             @Value("${gcs.project-id}") String projectId,
@@ -36,7 +47,8 @@ public class GoogleCloudStorageService {
             @Value("${gcs.bucket-name}") String bucketName,
             @Value("${gcs.url-expiry:86400}") int urlExpiry,
             @Value("${gcs.image-url-expiry:86400}") int imageUrlExpiry,
-            ImageCompressionService imageCompressionService) throws IOException {
+            ImageCompressionService imageCompressionService,
+            PipelineMetrics pipelineMetrics) throws IOException {
 
         log.info("🚀 Initializing Google Cloud Storage Service...");
         log.info("📋 Configuration:");
@@ -50,6 +62,7 @@ public class GoogleCloudStorageService {
         this.urlExpiry = urlExpiry;
         this.imageUrlExpiry = imageUrlExpiry;
         this.imageCompressionService = imageCompressionService;
+        this.pipelineMetrics = pipelineMetrics;
 
         try {
             log.info("🔑 Loading service account credentials...");
@@ -131,7 +144,8 @@ public class GoogleCloudStorageService {
                 originalFilename, userId, filename);
 
             // Compress image if needed
-            byte[] fileBytes = imageCompressionService.compressImageIfNeeded(file);
+            byte[] fileBytes = pipelineMetrics.time(PipelineMetrics.IMAGE_COMPRESS,
+                    () -> imageCompressionService.compressImageIfNeeded(file));
 
             BlobId blobId = BlobId.of(bucketName, filename);
             BlobInfo blobInfo = BlobInfo.newBuilder(blobId)
@@ -141,7 +155,7 @@ public class GoogleCloudStorageService {
             log.info("📦 Uploading to GCS - Bucket: {}, Object: {}, Content-Type: {}, Size: {} bytes",
                 bucketName, filename, file.getContentType(), fileBytes.length);
 
-            storage.create(blobInfo, fileBytes);
+            pipelineMetrics.time(PipelineMetrics.GCS_UPLOAD, () -> storage.create(blobInfo, fileBytes));
 
             log.info("✅ Upload successful - Object name: {}, Size: {} bytes", filename, fileBytes.length);
 
@@ -175,12 +189,12 @@ public class GoogleCloudStorageService {
             BlobId blobId = BlobId.of(bucketName, objectName);
             BlobInfo blobInfo = BlobInfo.newBuilder(blobId).build();
 
-            URL signedUrl = storage.signUrl(
+            URL signedUrl = pipelineMetrics.time(PipelineMetrics.URL_SIGNING, () -> storage.signUrl(
                     blobInfo,
                     urlExpiry,
                     TimeUnit.SECONDS,
                     Storage.SignUrlOption.withV4Signature()
-            );
+            ));
 
             log.info("✅ Signed URL generated - Expiry: {} seconds", urlExpiry);
             log.info("🌐 URL: {}", signedUrl.toString());
@@ -216,12 +230,12 @@ public class GoogleCloudStorageService {
             BlobId blobId = BlobId.of(bucketName, objectName);
             BlobInfo blobInfo = BlobInfo.newBuilder(blobId).build();
 
-            URL signedUrl = storage.signUrl(
+            URL signedUrl = pipelineMetrics.time(PipelineMetrics.URL_SIGNING, () -> storage.signUrl(
                     blobInfo,
                     imageUrlExpiry,
                     TimeUnit.SECONDS,
                     Storage.SignUrlOption.withV4Signature()
-            );
+            ));
 
             log.info("✅ Signed IMAGE URL generated - Expiry: {} seconds ({} hours)",
                 imageUrlExpiry, imageUrlExpiry / 3600);
@@ -281,4 +295,91 @@ public class GoogleCloudStorageService {
             throw new FileStorageException("Failed to delete file from storage", e);
         }
     }
+
+    /**
+     * Lists the top-level "directories" of the bucket (one per user, e.g. "{userId}/"), one page at a time.
+     *
+     * @param pageToken Token returned by the previous page, or null for the first page
+     * @param pageSize  Maximum number of prefixes per page
+     * @return A page of prefix placeholders; use {@link Blob#getName()} for the prefix
+     */
+    public Page<Blob> listTopLevelPrefixes(String pageToken, int pageSize) {
+        List<Storage.BlobListOption> options = new ArrayList<>();
+        options.add(Storage.BlobListOption.currentDirectory());
+        options.add(Storage.BlobListOption.pageSize(pageSize));
+        if (pageToken != null) {
+            options.add(Storage.BlobListOption.pageToken(pageToken));
+        }
+        return listPage(options);
+    }
+
+    /**
+     * Lists objects under a prefix, one page at a time.
+     *
+     * @param prefix    Object name prefix (e.g. "{userId}/")
+     * @param pageToken Token returned by the previous page, or null for the first page
+     * @param pageSize  Maximum number of objects per page
+     * @return A page of objects
+     */
+    public Page<Blob> listObjects(String prefix, String pageToken, int pageSize) {
+        List<Storage.BlobListOption> options = new ArrayList<>();
+        options.add(Storage.BlobListOption.prefix(prefix));
+        options.add(Storage.BlobListOption.pageSize(pageSize));
+        if (pageToken != null) {
+            options.add(Storage.BlobListOption.pageToken(pageToken));
+        }
+        return listPage(options);
+    }
+
+    private Page<Blob> listPage(List<Storage.BlobListOption> options) {
+        try {
+            return storage.list(bucketName, options.toArray(new Storage.BlobListOption[0]));
+        } catch (Exception e) {
+            log.error("Failed to list objects in GCS bucket: {}", bucketName, e);
+            throw new FileStorageException("Failed to list files in storage", e);
+        }
+    }
+
+    /**
+     * Deletes several files using the GCS batch API (up to 100 deletions per HTTP request).
+     * Objects that no longer exist count as deleted.
+     *
+     * @param objectNames The object names (paths) in GCS
+     * @return Failed deletions mapped to their error message; empty if everything was deleted
+     */
+    public Map<String, String> deleteFiles(List<String> objectNames) {
+        Map<String, String> failures = new LinkedHashMap<>();
+
+        for (int from = 0; from < objectNames.size(); from += MAX_BATCH_SIZE) {
+            List<String> chunk = objectNames.subList(from, Math.min(from + MAX_BATCH_SIZE, objectNames.size()));
+            try {
+                StorageBatch batch = storage.batch();
+                for (String objectName : chunk) {
+                    batch.delete(BlobId.of(bucketName, objectName)).notify(new BatchResult.Callback<>() {
+                        @Override
+                        public void success(Boolean deleted) {
+                            if (!deleted) {
+                                log.debug("File already gone from GCS: {}", objectName);
+                            }
+                        }
+
+                        @Override
+                        public void error(StorageException e) {
+                            if (e.getCode() == 404) {
+                                return;
+                            }
+                            failures.put(objectName, e.getMessage());
+                        }
+                    });
+                }
+                batch.submit();
+            } catch (Exception e) {
+                log.error("Batch delete of {} files from GCS failed", chunk.size(), e);
+                chunk.forEach(objectName -> failures.putIfAbsent(objectName, e.getMessage()));
+            }
+        }
+
+        log.info("Batch deleted {} of {} files from GCS", objectNames.size() - failures.size(), objectNames.size());
+        return failures;
+    }
 }
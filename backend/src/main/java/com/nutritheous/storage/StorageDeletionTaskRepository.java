@@ -0,0 +1,72 @@
+package com.nutritheous.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StorageDeletionTaskRepository extends JpaRepository<StorageDeletionTask, Long> {
+
+    /**
+     * Adds an object to the queue. Enqueueing an object that is already queued is a no-op.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO storage_deletion_queue (object_name, attempts, next_attempt_at, last_error, created_at)
+            VALUES (:objectName, 0, :nextAttemptAt, :lastError, CURRENT_TIMESTAMP)
+            ON CONFLICT (object_name) DO NOTHING
+            """, nativeQuery = true)
+    int enqueue(@Param("objectName") String objectName,
+                @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                @Param("lastError") String lastError);
+
+    /**
+     * Queues the images of the given meals in one statement. Must run before the meals are deleted.
+     *
+     * @return Number of objects queued
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO storage_deletion_queue (object_name, attempts, next_attempt_at, created_at)
+            SELECT object_name, 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM meals
+            WHERE id IN (:mealIds) AND object_name IS NOT NULL
+            ON CONFLICT (object_name) DO NOTHING
+            """, nativeQuery = true)
+    int enqueueForMeals(@Param("mealIds") Collection<UUID> mealIds);
+
+    /**
+     * Locks up to {@code limit} due tasks, skipping rows another node has locked. Must run in the
+     * same transaction as {@link #extendLease}, which makes the claim outlive the row locks.
+     */
+    @Query(value = """
+            SELECT * FROM storage_deletion_queue
+            WHERE next_attempt_at <= :now
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<StorageDeletionTask> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Pushes the next attempt of the given tasks forward by a lease, so that nodes draining the
+     * queue after this transaction commits skip them too.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE StorageDeletionTask t SET t.nextAttemptAt = :leaseUntil WHERE t.id IN :ids")
+    int extendLease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StorageDeletionTask t WHERE t.objectName IN :objectNames")
+    int deleteByObjectNameIn(@Param("objectNames") Collection<String> objectNames);
+}
@@ -0,0 +1,255 @@
+package com.nutritheous.storage;
+
+import com.google.api.gax.paging.Page;
+import com.google.cloud.storage.Blob;
+import com.nutritheous.meal.MealRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the GCS bucket in sync with the meals table.
+ *
+ * - A nightly reconciler walks every "{userId}/" prefix page by page, diffs each page against
+ *   meals.object_name and batch-deletes objects no meal points at (e.g. from failed uploads).
+ *   The cron fires on every node; a Postgres advisory lock lets only one of them scan.
+ * - Deletions that fail are written to the storage_deletion_queue table and retried with
+ *   exponential backoff instead of being dropped. Every node drains the queue; rows are claimed
+ *   with FOR UPDATE SKIP LOCKED, so no two nodes take the same task.
+ */
+@Service
+@Slf4j
+public class StorageReconciliationService {
+
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(10);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(24);
+    private static final long RECONCILIATION_LOCK_KEY = "storage.gc.reconcile".hashCode();
+
+    private final GoogleCloudStorageService storageService;
+    private final MealRepository mealRepository;
+    private final StorageDeletionTaskRepository deletionTaskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int pageSize;
+    private final Duration minObjectAge;
+    private final int retryBatchSize;
+
+    public StorageReconciliationService(
+            GoogleCloudStorageService storageService,
+            MealRepository mealRepository,
+            StorageDeletionTaskRepository deletionTaskRepository,
+            TransactionTemplate transactionTemplate,
+            JdbcTemplate jdbcTemplate,
+            @Value("${storage.gc.enabled:true}") boolean enabled,
+            @Value("${storage.gc.page-size:500}") int pageSize,
+            @Value("${storage.gc.min-object-age-hours:24}") int minObjectAgeHours,
+            @Value("${storage.gc.retry-batch-size:200}") int retryBatchSize) {
+        this.storageService = storageService;
+        this.mealRepository = mealRepository;
+        this.deletionTaskRepository = deletionTaskRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.minObjectAge = Duration.ofHours(minObjectAgeHours);
+        this.retryBatchSize = retryBatchSize;
+    }
+
+    /**
+     * Queues an object for deletion, e.g. after a synchronous delete failed.
+     * Safe to call for objects that are already queued.
+     */
+    public void enqueueDeletion(String objectName, String reason) {
+        deletionTaskRepository.enqueue(objectName, LocalDateTime.now(), truncate(reason));
+        log.info("Queued GCS object for deletion retry: {}", objectName);
+    }
+
+    /**
+     * Finds and deletes objects that are not referenced by any meal.
+     * Objects younger than the configured minimum age are skipped so that uploads whose meal row
+     * has not been inserted yet are never touched.
+     * Runs on whichever node takes the session advisory lock first; the others skip this run.
+     */
+    @Scheduled(cron = "${storage.gc.cron:0 30 3 * * *}")
+    public void reconcileOrphanedObjects() {
+        if (!enabled) {
+            return;
+        }
+
+        // The lock belongs to this connection, which is held for the whole scan and unlocked
+        // before it goes back to the pool; a dropped connection releases it as well
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!callLockFunction(connection, "pg_try_advisory_lock")) {
+                return false;
+            }
+            try {
+                scanForOrphans();
+            } finally {
+                callLockFunction(connection, "pg_advisory_unlock");
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(ran)) {
+            log.info("⏭️  Orphaned object reconciliation is running on another node - skipping");
+        }
+    }
+
+    private void scanForOrphans() {
+        log.info("🧹 Starting orphaned object reconciliation");
+        OffsetDateTime cutoff = OffsetDateTime.now().minus(minObjectAge);
+        long scanned = 0;
+        long orphaned = 0;
+
+        String prefixToken = null;
+        do {
+            Page<Blob> prefixes = storageService.listTopLevelPrefixes(prefixToken, pageSize);
+            for (Blob prefix : prefixes.getValues()) {
+                if (!isUserPrefix(prefix.getName())) {
+                    log.debug("Skipping non-user prefix: {}", prefix.getName());
+                    continue;
+                }
+
+                String objectToken = null;
+                do {
+                    Page<Blob> objects = storageService.listObjects(prefix.getName(), objectToken, pageSize);
+                    List<String> candidates = new ArrayList<>();
+                    for (Blob blob : objects.getValues()) {
+                        scanned++;
+                        OffsetDateTime createdAt = blob.getCreateTimeOffsetDateTime();
+                        if (createdAt != null && createdAt.isBefore(cutoff)) {
+                            candidates.add(blob.getName());
+                        }
+                    }
+                    orphaned += deleteUnreferenced(candidates);
+                    objectToken = objects.getNextPageToken();
+                } while (objectToken != null);
+            }
+            prefixToken = prefixes.getNextPageToken();
+        } while (prefixToken != null);
+
+        log.info("✅ Orphaned object reconciliation finished - Scanned: {}, Orphans deleted or queued: {}",
+                scanned, orphaned);
+    }
+
+    /**
+     * Retries queued deletions that are due. Tasks are claimed with a lease so that several
+     * nodes can drain the queue concurrently without deleting the same objects twice:
+     * the claiming transaction skips rows another node has locked, and the lease keeps
+     * claimed rows out of later claims until it runs out.
+     */
+    @Scheduled(fixedDelayString = "${storage.gc.retry-interval-ms:60000}", initialDelayString = "${storage.gc.retry-interval-ms:60000}")
+    public void processDeletionQueue() {
+        if (!enabled) {
+            return;
+        }
+
+        List<StorageDeletionTask> tasks;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            tasks = transactionTemplate.execute(status -> {
+                List<StorageDeletionTask> due = deletionTaskRepository.lockDue(now, retryBatchSize);
+                if (!due.isEmpty()) {
+                    deletionTaskRepository.extendLease(
+                            due.stream().map(StorageDeletionTask::getId).toList(), now.plus(CLAIM_LEASE));
+                }
+                return due;
+            });
+            if (tasks == null || tasks.isEmpty()) {
+                return;
+            }
+
+            List<String> objectNames = tasks.stream().map(StorageDeletionTask::getObjectName).toList();
+            Map<String, String> failures = storageService.deleteFiles(objectNames);
+
+            List<String> deleted = objectNames.stream().filter(name -> !failures.containsKey(name)).toList();
+            List<StorageDeletionTask> failed = tasks.stream()
+                    .filter(task -> failures.containsKey(task.getObjectName()))
+                    .toList();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!deleted.isEmpty()) {
+                    deletionTaskRepository.deleteByObjectNameIn(deleted);
+                }
+                for (StorageDeletionTask task : failed) {
+                    task.setAttempts(task.getAttempts() + 1);
+                    task.setNextAttemptAt(LocalDateTime.now().plus(backoff(task.getAttempts())));
+                    task.setLastError(truncate(failures.get(task.getObjectName())));
+                }
+                deletionTaskRepository.saveAll(failed);
+            });
+
+            log.info("Processed GCS deletion queue batch - Deleted: {}, Failed: {}", deleted.size(), failed.size());
+        } while (tasks.size() == retryBatchSize);
+    }
+
+    private int deleteUnreferenced(List<String> candidates) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> referenced = new HashSet<>(mealRepository.findReferencedObjectNames(candidates));
+        List<String> orphans = candidates.stream().filter(name -> !referenced.contains(name)).toList();
+        if (orphans.isEmpty()) {
+            return 0;
+        }
+
+        log.info("Found {} orphaned objects, deleting", orphans.size());
+        Map<String, String> failures = storageService.deleteFiles(orphans);
+        failures.forEach(this::enqueueDeletion);
+        return orphans.size();
+    }
+
+    /**
+     * Calls {@code pg_try_advisory_lock} or {@code pg_advisory_unlock} on the reconciliation key.
+     */
+    private static boolean callLockFunction(Connection connection, String function) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "SELECT " + function + "(" + RECONCILIATION_LOCK_KEY + ")")) {
+            return result.next() && result.getBoolean(1);
+        }
+    }
+
+    private boolean isUserPrefix(String prefix) {
+        if (prefix == null || !prefix.endsWith("/")) {
+            return false;
+        }
+        try {
+            UUID.fromString(prefix.substring(0, prefix.length() - 1));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = Duration.ofMinutes(1L << Math.min(attempts, 20));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
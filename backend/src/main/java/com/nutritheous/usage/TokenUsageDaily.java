@@ -0,0 +1,51 @@
+package com.nutritheous.usage;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Token usage of one user on one day, per model and endpoint. Only written by the rollup.
+ */
+@Entity
+@Table(name = "token_usage_daily")
+@IdClass(TokenUsageDailyId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenUsageDaily {
+
+    /** Stands in for calls without a user. */
+    public static final UUID ANONYMOUS_USER = new UUID(0, 0);
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Id
+    @Column(name = "usage_date")
+    private LocalDate usageDate;
+
+    @Id
+    @Column(length = 100)
+    private String model;
+
+    @Id
+    @Column(length = 50)
+    private String endpoint;
+
+    @Column(nullable = false)
+    private long requests;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private long promptTokens;
+
+    @Column(name = "completion_tokens", nullable = false)
+    private long completionTokens;
+}
@@ -0,0 +1,23 @@
+package com.nutritheous.usage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Composite primary key of {@link TokenUsageDaily}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenUsageDailyId implements Serializable {
+
+    private UUID userId;
+    private LocalDate usageDate;
+    private String model;
+    private String endpoint;
+}
@@ -0,0 +1,44 @@
+package com.nutritheous.usage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TokenUsageDailyRepository extends JpaRepository<TokenUsageDaily, TokenUsageDailyId> {
+
+    /**
+     * Per day, model and endpoint across all users: [date, model, endpoint, requests, prompt, completion].
+     */
+    @Query("""
+            SELECT d.usageDate, d.model, d.endpoint, SUM(d.requests), SUM(d.promptTokens), SUM(d.completionTokens)
+            FROM TokenUsageDaily d
+            WHERE d.usageDate BETWEEN :startDate AND :endDate
+            GROUP BY d.usageDate, d.model, d.endpoint
+            ORDER BY d.usageDate, d.model, d.endpoint
+            """)
+    List<Object[]> sumByDay(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Users by tokens spent, most first: [userId, model, requests, prompt, completion].
+     */
+    @Query("""
+            SELECT d.userId, d.model, SUM(d.requests), SUM(d.promptTokens), SUM(d.completionTokens)
+            FROM TokenUsageDaily d
+            WHERE d.usageDate BETWEEN :startDate AND :endDate
+            GROUP BY d.userId, d.model
+            ORDER BY SUM(d.promptTokens) + SUM(d.completionTokens) DESC
+            """)
+    List<Object[]> sumByUser(@Param("startDate") LocalDate startDate,
+                             @Param("endDate") LocalDate endDate,
+                             Pageable pageable);
+
+    List<TokenUsageDaily> findByUserIdAndUsageDateBetweenOrderByUsageDate(
+            UUID userId, LocalDate startDate, LocalDate endDate);
+}
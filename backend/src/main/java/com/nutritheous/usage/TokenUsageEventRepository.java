@@ -0,0 +1,39 @@
+package com.nutritheous.usage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TokenUsageEventRepository extends JpaRepository<TokenUsageEvent, Long> {
+
+    /**
+     * Moves events older than the cutoff into token_usage_daily in one statement: the rows are
+     * deleted and their sums added to the daily counters atomically, so every event is counted
+     * exactly once even if two nodes run the rollup at the same time.
+     *
+     * @return number of daily rows inserted or updated
+     */
+    @Modifying
+    @Query(value = """
+            WITH moved AS (
+                DELETE FROM token_usage_events
+                WHERE created_at < :cutoff
+                RETURNING user_id, endpoint, model, prompt_tokens, completion_tokens, created_at
+            )
+            INSERT INTO token_usage_daily (user_id, usage_date, model, endpoint, requests, prompt_tokens, completion_tokens)
+            SELECT COALESCE(user_id, '00000000-0000-0000-0000-000000000000'::uuid), created_at::date, model, endpoint,
+                   COUNT(*), SUM(prompt_tokens), SUM(completion_tokens)
+            FROM moved
+            GROUP BY 1, 2, 3, 4
+            ON CONFLICT (user_id, usage_date, model, endpoint) DO UPDATE
+                SET requests = token_usage_daily.requests + EXCLUDED.requests,
+                    prompt_tokens = token_usage_daily.prompt_tokens + EXCLUDED.prompt_tokens,
+                    completion_tokens = token_usage_daily.completion_tokens + EXCLUDED.completion_tokens
+            """, nativeQuery = true)
+    int rollUpBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,134 @@
+package com.nutritheous.usage;
+
+import com.nutritheous.analyzer.TokenUsage;
+import com.nutritheous.usage.dto.UsageTotals;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Meters OpenAI token usage. Every call is appended to token_usage_events (one cheap insert)
+ * and counted in metrics; a periodic rollup folds the events into per-user daily totals,
+ * which the admin endpoints read.
+ */
+@Service
+@Slf4j
+public class TokenUsageService {
+
+    public static final String ENDPOINT_MEAL_UPLOAD = "meal_upload";
+    public static final String ENDPOINT_DEBUG_ANALYZER = "debug_analyzer";
+
+    private final TokenUsageEventRepository eventRepository;
+    private final TokenUsageDailyRepository dailyRepository;
+    private final MeterRegistry meterRegistry;
+    private final double promptUsdPerMillion;
+    private final double completionUsdPerMillion;
+
+    public TokenUsageService(
+            TokenUsageEventRepository eventRepository,
+            TokenUsageDailyRepository dailyRepository,
+            MeterRegistry meterRegistry,
+            @Value("${usage.price.prompt-usd-per-million:0.15}") double promptUsdPerMillion,
+            @Value("${usage.price.completion-usd-per-million:0.60}") double completionUsdPerMillion) {
+        this.eventRepository = eventRepository;
+        this.dailyRepository = dailyRepository;
+        this.meterRegistry = meterRegistry;
+        this.promptUsdPerMillion = promptUsdPerMillion;
+        this.completionUsdPerMillion = completionUsdPerMillion;
+    }
+
+    /**
+     * Records one OpenAI call. Joins the caller's transaction when there is one, so the event is
+     * only stored together with the meal it was spent on.
+     */
+    @Transactional
+    public void record(UUID userId, UUID mealId, String endpoint, TokenUsage usage) {
+        if (usage == null) {
+            return;
+        }
+        eventRepository.save(TokenUsageEvent.builder()
+                .userId(userId)
+                .mealId(mealId)
+                .endpoint(endpoint)
+                .model(usage.model())
+                .promptTokens(usage.promptTokens())
+                .completionTokens(usage.completionTokens())
+                .build());
+
+        meterRegistry.counter("openai.requests", "model", usage.model(), "endpoint", endpoint).increment();
+        meterRegistry.counter("openai.tokens", "model", usage.model(), "endpoint", endpoint, "type", "prompt")
+                .increment(usage.promptTokens());
+        meterRegistry.counter("openai.tokens", "model", usage.model(), "endpoint", endpoint, "type", "completion")
+                .increment(usage.completionTokens());
+    }
+
+    /**
+     * Folds all committed events into the daily totals. Safe to run concurrently on several nodes.
+     */
+    @Scheduled(fixedDelayString = "${usage.rollup.interval-ms:300000}",
+            initialDelayString = "${usage.rollup.interval-ms:300000}")
+    @Transactional
+    public void rollUp() {
+        int rows = eventRepository.rollUpBefore(LocalDateTime.now());
+        if (rows > 0) {
+            log.debug("Rolled token usage events into {} daily rows", rows);
+        }
+    }
+
+    /**
+     * Usage per day, model and endpoint across all users.
+     */
+    @Transactional
+    public List<UsageTotals> getDailyTotals(LocalDate startDate, LocalDate endDate) {
+        rollUp();
+        return dailyRepository.sumByDay(startDate, endDate).stream()
+                .map(row -> totals((LocalDate) row[0], null, (String) row[1], (String) row[2], row, 3))
+                .toList();
+    }
+
+    /**
+     * The users (and models) that spent the most tokens in the range.
+     */
+    @Transactional
+    public List<UsageTotals> getTopUsers(LocalDate startDate, LocalDate endDate, int limit) {
+        rollUp();
+        return dailyRepository.sumByUser(startDate, endDate, PageRequest.of(0, limit)).stream()
+                .map(row -> totals(null, (UUID) row[0], (String) row[1], null, row, 2))
+                .toList();
+    }
+
+    /**
+     * Daily usage of one user.
+     */
+    @Transactional
+    public List<UsageTotals> getUserUsage(UUID userId, LocalDate startDate, LocalDate endDate) {
+        rollUp();
+        return dailyRepository.findByUserIdAndUsageDateBetweenOrderByUsageDate(userId, startDate, endDate).stream()
+                .map(d -> new UsageTotals(d.getUsageDate(), d.getUserId(), d.getModel(), d.getEndpoint(),
+                        d.getRequests(), d.getPromptTokens(), d.getCompletionTokens(),
+                        cost(d.getPromptTokens(), d.getCompletionTokens())))
+                .toList();
+    }
+
+    private UsageTotals totals(LocalDate date, UUID userId, String model, String endpoint, Object[] row, int offset) {
+        long requests = ((Number) row[offset]).longValue();
+        long promptTokens = ((Number) row[offset + 1]).longValue();
+        long completionTokens = ((Number) row[offset + 2]).longValue();
+        return new UsageTotals(date, userId, model, endpoint, requests, promptTokens, completionTokens,
+                cost(promptTokens, completionTokens));
+    }
+
+    private double cost(long promptTokens, long completionTokens) {
+        double usd = (promptTokens * promptUsdPerMillion + completionTokens * completionUsdPerMillion) / 1_000_000;
+        return Math.round(usd * 10_000) / 10_000.0;
+    }
+}
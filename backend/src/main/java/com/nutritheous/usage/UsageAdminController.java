@@ -0,0 +1,73 @@
+package com.nutritheous.usage;
+
+import com.nutritheous.common.exception.BadRequestException;
+import com.nutritheous.usage.dto.UsageTotals;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/usage")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Usage (admin)", description = "OpenAI token usage and estimated cost")
+@SecurityRequirement(name = "bearerAuth")
+public class UsageAdminController {
+
+    private static final int MAX_TOP_USERS = 500;
+
+    private final TokenUsageService tokenUsageService;
+
+    @GetMapping("/daily")
+    @Operation(summary = "Daily usage", description = "Tokens and estimated cost per day, model and endpoint across all users")
+    public ResponseEntity<List<UsageTotals>> getDailyUsage(
+            @Parameter(description = "Start date (defaults to 30 days ago)", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date (defaults to today)", example = "2024-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        return ResponseEntity.ok(tokenUsageService.getDailyTotals(start(startDate), end(endDate)));
+    }
+
+    @GetMapping("/top-users")
+    @Operation(summary = "Top users", description = "Users that spent the most tokens in the range, per model")
+    public ResponseEntity<List<UsageTotals>> getTopUsers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @Parameter(description = "Maximum number of rows (1-500)", example = "20")
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        if (limit < 1 || limit > MAX_TOP_USERS) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_TOP_USERS);
+        }
+        return ResponseEntity.ok(tokenUsageService.getTopUsers(start(startDate), end(endDate), limit));
+    }
+
+    @GetMapping("/users/{userId}")
+    @Operation(summary = "Usage of one user", description = "Daily tokens and estimated cost of a user, per model and endpoint")
+    public ResponseEntity<List<UsageTotals>> getUserUsage(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        return ResponseEntity.ok(tokenUsageService.getUserUsage(userId, start(startDate), end(endDate)));
+    }
+
+    private static LocalDate start(LocalDate startDate) {
+        return startDate != null ? startDate : LocalDate.now().minusDays(30);
+    }
+
+    private static LocalDate end(LocalDate endDate) {
+        return endDate != null ? endDate : LocalDate.now();
+    }
+}
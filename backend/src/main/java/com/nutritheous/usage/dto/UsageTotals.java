@@ -0,0 +1,19 @@
+package com.nutritheous.usage.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Token usage summed over a group of daily rows. Grouping columns that do not apply are null.
+ */
+public record UsageTotals(
+        LocalDate date,
+        UUID userId,
+        String model,
+        String endpoint,
+        long requests,
+        long promptTokens,
+        long completionTokens,
+        double estimatedCostUsd
+) {
+}
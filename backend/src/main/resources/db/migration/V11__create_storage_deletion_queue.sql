@@ -0,0 +1,21 @@
+-- Durable retry queue for Google Cloud Storage object deletions
+-- Objects whose deletion failed (or was deferred) are retried by StorageReconciliationService
+
+CREATE TABLE IF NOT EXISTS storage_deletion_queue (
+    id BIGSERIAL PRIMARY KEY,
+    object_name VARCHAR(500) NOT NULL UNIQUE,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_storage_deletion_queue_next_attempt ON storage_deletion_queue(next_attempt_at);
+
+-- Add comments
+COMMENT ON TABLE storage_deletion_queue IS 'GCS objects pending deletion. Rows are removed once the object is confirmed deleted.';
+COMMENT ON COLUMN storage_deletion_queue.attempts IS 'Number of failed deletion attempts so far';
+COMMENT ON COLUMN storage_deletion_queue.next_attempt_at IS 'Earliest time the next deletion attempt may run (exponential backoff)';
+
+-- The storage reconciler diffs listed GCS objects against meals.object_name in batches
+CREATE INDEX IF NOT EXISTS idx_meals_object_name ON meals(object_name) WHERE object_name IS NOT NULL;
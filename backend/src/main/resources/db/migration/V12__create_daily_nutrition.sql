@@ -0,0 +1,59 @@
+-- Pre-aggregated daily nutrition totals per user
+-- Maintained by DailyNutritionService in the same transaction as meal inserts, updates and deletes,
+-- so statistics endpoints read one row per day instead of every meal
+
+CREATE TABLE IF NOT EXISTS daily_nutrition (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    meal_date DATE NOT NULL,
+
+    -- Meal counts (total and per meal type)
+    meal_count INTEGER NOT NULL DEFAULT 0,
+    breakfast_count INTEGER NOT NULL DEFAULT 0,
+    lunch_count INTEGER NOT NULL DEFAULT 0,
+    dinner_count INTEGER NOT NULL DEFAULT 0,
+    snack_count INTEGER NOT NULL DEFAULT 0,
+
+    -- Summed nutrition (NULL meal values count as 0)
+    total_calories INTEGER NOT NULL DEFAULT 0,
+    total_protein_g DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_fat_g DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_saturated_fat_g DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_carbohydrates_g DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_fiber_g DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_sugar_g DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_sodium_mg DOUBLE PRECISION NOT NULL DEFAULT 0,
+    total_cholesterol_mg DOUBLE PRECISION NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (user_id, meal_date)
+);
+
+-- Backfill from existing meals
+INSERT INTO daily_nutrition (
+    user_id, meal_date, meal_count, breakfast_count, lunch_count, dinner_count, snack_count,
+    total_calories, total_protein_g, total_fat_g, total_saturated_fat_g, total_carbohydrates_g,
+    total_fiber_g, total_sugar_g, total_sodium_mg, total_cholesterol_mg
+)
+SELECT
+    user_id,
+    CAST(meal_time AS DATE),
+    COUNT(*),
+    COUNT(*) FILTER (WHERE meal_type = 'BREAKFAST'),
+    COUNT(*) FILTER (WHERE meal_type = 'LUNCH'),
+    COUNT(*) FILTER (WHERE meal_type = 'DINNER'),
+    COUNT(*) FILTER (WHERE meal_type = 'SNACK'),
+    COALESCE(SUM(calories), 0),
+    COALESCE(SUM(protein_g), 0),
+    COALESCE(SUM(fat_g), 0),
+    COALESCE(SUM(saturated_fat_g), 0),
+    COALESCE(SUM(carbohydrates_g), 0),
+    COALESCE(SUM(fiber_g), 0),
+    COALESCE(SUM(sugar_g), 0),
+    COALESCE(SUM(sodium_mg), 0),
+    COALESCE(SUM(cholesterol_mg), 0)
+FROM meals
+GROUP BY user_id, CAST(meal_time AS DATE)
+ON CONFLICT (user_id, meal_date) DO NOTHING;
+
+-- Add comments
+COMMENT ON TABLE daily_nutrition IS 'Per-user daily nutrition rollup of the meals table. Rebuildable from meals at any time.';
+COMMENT ON COLUMN daily_nutrition.meal_date IS 'Calendar date of meals.meal_time';
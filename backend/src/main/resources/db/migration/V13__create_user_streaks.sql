@@ -0,0 +1,29 @@
+-- Logging streak state per user, derived from daily_nutrition
+-- Recomputed by DailyNutritionService only when a day gains its first meal or loses its last one,
+-- so reading trends never scans the user's history
+
+CREATE TABLE IF NOT EXISTS user_streaks (
+    user_id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    -- Most recent run of consecutive days with at least one meal
+    current_start DATE NOT NULL,
+    current_end DATE NOT NULL,
+    longest_streak INTEGER NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Backfill: consecutive days share the same (meal_date - row_number) value
+WITH islands AS (
+    SELECT user_id, MIN(meal_date) AS start_date, MAX(meal_date) AS end_date, COUNT(*) AS length
+    FROM (
+        SELECT user_id, meal_date,
+               meal_date - CAST(ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY meal_date) AS INTEGER) AS grp
+        FROM daily_nutrition
+        WHERE meal_count > 0
+    ) days
+    GROUP BY user_id, grp
+)
+INSERT INTO user_streaks (user_id, current_start, current_end, longest_streak)
+SELECT DISTINCT ON (user_id)
+    user_id, start_date, end_date, MAX(length) OVER (PARTITION BY user_id)
+FROM islands
+ORDER BY user_id, end_date DESC;
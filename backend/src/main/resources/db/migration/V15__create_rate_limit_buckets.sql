@@ -0,0 +1,8 @@
+-- Shared rate limit buckets, used when rate-limit.store=postgres.
+-- Each row is a token bucket in GCRA form: the theoretical arrival time in microseconds (DB clock).
+-- UNLOGGED: losing this state on a crash only refills the buckets.
+
+CREATE UNLOGGED TABLE IF NOT EXISTS rate_limit_buckets (
+    bucket_key VARCHAR(200) PRIMARY KEY,
+    tat_micros BIGINT NOT NULL
+);
@@ -0,0 +1,34 @@
+-- OpenAI token usage: per meal, as an append-only event log, and as a per-user daily rollup
+
+ALTER TABLE meals ADD COLUMN IF NOT EXISTS ai_model VARCHAR(100);
+ALTER TABLE meals ADD COLUMN IF NOT EXISTS prompt_tokens INTEGER;
+ALTER TABLE meals ADD COLUMN IF NOT EXISTS completion_tokens INTEGER;
+
+-- One row per OpenAI call. Only ever inserted; the rollup job moves rows into token_usage_daily.
+-- No foreign keys, so writes stay cheap and usage survives account deletion for accounting.
+CREATE TABLE IF NOT EXISTS token_usage_events (
+    id BIGSERIAL PRIMARY KEY,
+    user_id UUID,
+    meal_id UUID,
+    endpoint VARCHAR(50) NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    prompt_tokens INTEGER NOT NULL,
+    completion_tokens INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_token_usage_events_created_at ON token_usage_events(created_at);
+
+-- Calls without a user (e.g. the debug analyzer endpoint) are stored under the nil UUID
+CREATE TABLE IF NOT EXISTS token_usage_daily (
+    user_id UUID NOT NULL,
+    usage_date DATE NOT NULL,
+    model VARCHAR(100) NOT NULL,
+    endpoint VARCHAR(50) NOT NULL,
+    requests BIGINT NOT NULL DEFAULT 0,
+    prompt_tokens BIGINT NOT NULL DEFAULT 0,
+    completion_tokens BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, usage_date, model, endpoint)
+);
+
+CREATE INDEX IF NOT EXISTS idx_token_usage_daily_date ON token_usage_daily(usage_date);
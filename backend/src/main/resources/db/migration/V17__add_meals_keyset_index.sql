@@ -0,0 +1,6 @@
+-- Keyset pagination orders meal lists by (meal_time DESC, id DESC)
+-- Including id lets the index serve the tie-break and the cursor predicate without a sort
+CREATE INDEX IF NOT EXISTS idx_meals_user_meal_time_id ON meals(user_id, meal_time DESC, id DESC);
+
+-- The new index covers every lookup on its (user_id, meal_time) prefix
+DROP INDEX IF EXISTS idx_meals_user_meal_time;
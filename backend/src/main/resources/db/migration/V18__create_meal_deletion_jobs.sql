@@ -0,0 +1,21 @@
+-- Progress of bulk meal deletions and account purges, readable from every node and across restarts
+-- No foreign key to users: an account purge job outlives the account it deleted
+
+CREATE TABLE IF NOT EXISTS meal_deletion_jobs (
+    id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    meals_deleted BIGINT NOT NULL DEFAULT 0,
+    images_queued BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_meal_deletion_jobs_status_updated_at ON meal_deletion_jobs(status, updated_at);
+
+-- Add comments
+COMMENT ON TABLE meal_deletion_jobs IS 'Bulk meal deletion and account purge jobs. Finished rows are removed after meal.deletion.job-retention.';
+COMMENT ON COLUMN meal_deletion_jobs.updated_at IS 'Touched after every committed batch; unfinished jobs that stop updating are marked FAILED';
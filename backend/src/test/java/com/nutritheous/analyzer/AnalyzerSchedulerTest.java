@@ -0,0 +1,76 @@
+package com.nutritheous.analyzer;
+
+import com.nutritheous.common.dto.AnalysisResponse;
+import com.nutritheous.common.exception.AnalyzerException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnalyzerSchedulerTest {
+
+    private static AnalyzerScheduler scheduler(TaskExecutor executor, int workers) {
+        return new AnalyzerScheduler(null, executor, new SimpleMeterRegistry(), workers, 0, Duration.ofSeconds(20),
+                8, workers, 10, 2, workers, 10, 1, workers, 10, Duration.ofSeconds(1), 1);
+    }
+
+    @Test
+    void rejectedExecutionFailsTheCallAndFreesTheWorker() throws Exception {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        TaskExecutor executor = task -> {
+            if (reject.get()) {
+                throw new TaskRejectedException("shutting down");
+            }
+            task.run();
+        };
+        AnalyzerScheduler scheduler = scheduler(executor, 1);
+
+        CompletableFuture<AnalysisResponse> rejected =
+                scheduler.submit(AnalysisPriority.INTERACTIVE, AnalysisResponse::new);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof AnalyzerException);
+
+        // The only worker was given back, so the next call still runs
+        reject.set(false);
+        CompletableFuture<AnalysisResponse> accepted =
+                scheduler.submit(AnalysisPriority.INTERACTIVE, AnalysisResponse::new);
+        assertNotNull(accepted.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void callAbandonedWhileQueuedIsNeverStarted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean abandonedStarted = new AtomicBoolean();
+        TaskExecutor executor = task -> new Thread(task).start();
+        AnalyzerScheduler scheduler = scheduler(executor, 1);
+
+        CompletableFuture<AnalysisResponse> first = scheduler.submit(AnalysisPriority.INTERACTIVE, () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new AnalysisResponse();
+        });
+        CompletableFuture<AnalysisResponse> abandoned = scheduler.submit(AnalysisPriority.INTERACTIVE, () -> {
+            abandonedStarted.set(true);
+            return new AnalysisResponse();
+        });
+        abandoned.cancel(false);
+        CompletableFuture<AnalysisResponse> last =
+                scheduler.submit(AnalysisPriority.INTERACTIVE, AnalysisResponse::new);
+
+        release.countDown();
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertNotNull(last.get(5, TimeUnit.SECONDS));
+        assertFalse(abandonedStarted.get());
+    }
+}
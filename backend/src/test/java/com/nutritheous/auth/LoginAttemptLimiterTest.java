@@ -0,0 +1,62 @@
+package com.nutritheous.auth;
+
+import com.nutritheous.common.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginAttemptLimiterTest {
+
+    private static LoginAttemptLimiter limiter(int maxAttemptsPerIp, int maxFailuresPerEmail, int maxKeys) {
+        return new LoginAttemptLimiter(true, maxAttemptsPerIp, Duration.ofMinutes(1),
+                maxFailuresPerEmail, Duration.ofMinutes(15), maxKeys, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void locksEmailAfterMaxFailuresAndUnlocksOnSuccess() {
+        LoginAttemptLimiter limiter = limiter(100, 3, 100);
+        for (int i = 0; i < 3; i++) {
+            limiter.checkAttempt("10.0.0.1", "Victim@Example.com");
+            limiter.recordFailure("Victim@Example.com");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.checkAttempt("10.0.0.2", "victim@example.com"));
+
+        limiter.recordSuccess("victim@example.com");
+        assertDoesNotThrow(() -> limiter.checkAttempt("10.0.0.2", "victim@example.com"));
+    }
+
+    @Test
+    void floodOfNewEmailsKeepsLiveFailureCounters() {
+        LoginAttemptLimiter limiter = limiter(100, 3, 5);
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("victim@example.com");
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.recordFailure("spray" + i + "@example.com");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.checkAttempt("10.0.0.1", "victim@example.com"));
+    }
+
+    @Test
+    void floodOfNewIpsKeepsLiveFailureCountersAndLimitsNewIps() {
+        LoginAttemptLimiter limiter = limiter(1, 3, 5);
+        for (int i = 0; i < 3; i++) {
+            limiter.recordFailure("victim@example.com");
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.checkAttempt("10.1." + (i / 256) + "." + (i % 256), null);
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> limiter.checkAttempt("10.2.0.1", "victim@example.com"));
+        limiter.checkAttempt("10.2.0.2", null);
+        assertThrows(TooManyRequestsException.class, () -> limiter.checkAttempt("10.2.0.2", null));
+    }
+}
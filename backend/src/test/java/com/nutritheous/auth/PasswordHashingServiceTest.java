@@ -0,0 +1,71 @@
+package com.nutritheous.auth;
+
+import com.nutritheous.common.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The property that keeps a login spike off the request threads: once the hashing threads and
+ * queue are taken, further logins are turned away with a 503 instead of waiting.
+ */
+class PasswordHashingServiceTest {
+
+    @Test
+    void rejectsBeyondThreadsPlusQueueWithoutWaiting() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    return release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        };
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        PasswordHashingService service = new PasswordHashingService(
+                blockingEncoder, executor, Duration.ofSeconds(10), new SimpleMeterRegistry());
+
+        try {
+            CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> service.matches("pw", "hash"));
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> service.matches("pw", "hash"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (executor.getThreadPoolExecutor().getQueue().size() < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+
+            long start = System.nanoTime();
+            assertThrows(ServiceUnavailableException.class, () -> service.matches("pw", "hash"));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "rejection should not wait for a thread");
+
+            release.countDown();
+            assertTrue(running.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+            assertEquals(0, executor.getThreadPoolExecutor().getQueue().size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.nutritheous.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitPolicyTest {
+
+    @Test
+    void stripesAddUpToCapacity() {
+        int[][] cases = {{30, 8}, {30, 30}, {7, 3}, {100, 8}, {5, 1}, {9, 8}};
+        for (int[] c : cases) {
+            RateLimitPolicy policy = new RateLimitPolicy(c[0], Duration.ofMinutes(1));
+            int sum = 0;
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (int i = 0; i < c[1]; i++) {
+                int share = policy.stripe(i, c[1]).capacity();
+                sum += share;
+                min = Math.min(min, share);
+                max = Math.max(max, share);
+            }
+            assertEquals(c[0], sum, c[0] + " over " + c[1]);
+            assertTrue(max - min <= 1, "shares differ by at most one token");
+        }
+    }
+
+    @Test
+    void stripeKeepsThePeriod() {
+        RateLimitPolicy policy = new RateLimitPolicy(30, Duration.ofMinutes(1));
+
+        assertEquals(Duration.ofMinutes(1), policy.stripe(0, 8).period());
+    }
+
+    @Test
+    void rejectsMoreStripesThanCapacity() {
+        RateLimitPolicy policy = new RateLimitPolicy(5, Duration.ofMinutes(1));
+
+        assertThrows(IllegalArgumentException.class, () -> policy.stripe(0, 6));
+    }
+
+    @Test
+    void burstToleranceCoversCapacityIntervals() {
+        RateLimitPolicy policy = new RateLimitPolicy(5, Duration.ofMinutes(1));
+
+        assertEquals(Duration.ofSeconds(12).toNanos(), policy.emissionIntervalNanos());
+        assertEquals(Duration.ofMinutes(1).toNanos(), policy.burstToleranceNanos());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitPolicy(0, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitPolicy(5, Duration.ZERO));
+    }
+}
@@ -0,0 +1,79 @@
+package com.nutritheous.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    /** 10 per 10 seconds: one token per second. */
+    private final RateLimitPolicy policy = new RateLimitPolicy(10, Duration.ofSeconds(10));
+
+    @Test
+    void allowsBurstOfCapacityThenRejects() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(now);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, bucket.tryAcquire(policy, now), "request " + i);
+        }
+        assertTrue(bucket.tryAcquire(policy, now) > 0);
+    }
+
+    @Test
+    void waitTimeIsTheTimeUntilTheNextToken() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(now);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryAcquire(policy, now);
+        }
+
+        assertEquals(SECOND, bucket.tryAcquire(policy, now));
+        assertEquals(SECOND / 4, bucket.tryAcquire(policy, now + SECOND * 3 / 4));
+    }
+
+    @Test
+    void refillsOneTokenPerEmissionInterval() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(now);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryAcquire(policy, now);
+        }
+
+        long later = now + 3 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(policy, later), "refilled token " + i);
+        }
+        assertTrue(bucket.tryAcquire(policy, later) > 0);
+    }
+
+    @Test
+    void isFullOnlyOnceCompletelyRefilled() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(now);
+        assertTrue(bucket.isFull(now));
+
+        bucket.tryAcquire(policy, now);
+        bucket.tryAcquire(policy, now);
+        assertFalse(bucket.isFull(now + SECOND));
+        assertTrue(bucket.isFull(now + 2 * SECOND));
+    }
+
+    @Test
+    void refillDoesNotBankTokensBeyondCapacity() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(now);
+
+        long muchLater = now + 3_600 * SECOND;
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, bucket.tryAcquire(policy, muchLater));
+        }
+        assertTrue(bucket.tryAcquire(policy, muchLater) > 0);
+    }
+}
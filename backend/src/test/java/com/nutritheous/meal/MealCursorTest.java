@@ -0,0 +1,54 @@
+package com.nutritheous.meal;
+
+import com.nutritheous.common.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MealCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        MealCursor cursor = new MealCursor(LocalDateTime.of(2025, 3, 14, 12, 30, 15, 123_456_000),
+                UUID.fromString("1b4e28ba-2fa1-11d2-883f-0016d3cca427"));
+
+        assertEquals(cursor, MealCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encodedFormIsUrlSafe() {
+        MealCursor cursor = new MealCursor(LocalDateTime.of(2025, 1, 1, 0, 0), UUID.randomUUID());
+
+        assertTrue(cursor.encode().matches("[A-Za-z0-9_-]+"), cursor.encode());
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstPage() {
+        assertSame(MealCursor.FIRST, MealCursor.decode(null));
+        assertSame(MealCursor.FIRST, MealCursor.decode(" "));
+        assertEquals(MealCursor.FIRST, MealCursor.decode(MealCursor.FIRST.encode()));
+    }
+
+    @Test
+    void rejectsTamperedCursors() {
+        String valid = new MealCursor(LocalDateTime.of(2025, 1, 1, 0, 0), UUID.randomUUID()).encode();
+
+        assertThrows(BadRequestException.class, () -> MealCursor.decode("not base64!"));
+        assertThrows(BadRequestException.class, () -> MealCursor.decode(valid.substring(0, valid.length() / 2)));
+        assertThrows(BadRequestException.class, () -> MealCursor.decode(encode("2025-01-01T00:00")));
+        assertThrows(BadRequestException.class, () -> MealCursor.decode(encode("yesterday|" + UUID.randomUUID())));
+        assertThrows(BadRequestException.class, () -> MealCursor.decode(encode("2025-01-01T00:00|not-a-uuid")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,88 @@
+package com.nutritheous.meal;
+
+import com.nutritheous.QueryCountTest;
+import com.nutritheous.auth.User;
+import com.nutritheous.meal.dto.MealListItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Meal lists are one projection query per page, with or without ingredients and allergens
+ * (user-029).
+ */
+class MealRepositoryQueryCountTest extends QueryCountTest {
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .passwordHash("x")
+                .build());
+        userId = user.getId();
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < 30; i++) {
+            entityManager.persist(Meal.builder()
+                    .user(user)
+                    .mealTime(start.plusHours(i))
+                    .mealType(Meal.MealType.LUNCH)
+                    .calories(500)
+                    .ingredients(List.of("rice", "egg"))
+                    .allergens(List.of("egg"))
+                    .analysisStatus(Meal.AnalysisStatus.COMPLETED)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statementsSinceLastCall();
+    }
+
+    @Test
+    void pageWithDetailsIsOneQuery() {
+        List<MealListItem> page = mealRepository.findPageByUserId(userId, MealCursor.FIRST.mealTime(),
+                MealCursor.FIRST.id(), true, PageRequest.of(0, 11));
+
+        assertEquals(1, statementsSinceLastCall());
+        assertEquals(11, page.size());
+        assertEquals(List.of("rice", "egg"), page.get(0).ingredients());
+        assertEquals(List.of("egg"), page.get(0).allergens());
+    }
+
+    @Test
+    void pageWithoutDetailsLeavesThemOut() {
+        List<MealListItem> page = mealRepository.findPageByUserId(userId, MealCursor.FIRST.mealTime(),
+                MealCursor.FIRST.id(), false, PageRequest.of(0, 11));
+
+        assertEquals(1, statementsSinceLastCall());
+        assertNull(page.get(0).ingredients());
+        assertNull(page.get(0).allergens());
+    }
+
+    @Test
+    void unpaginatedListIsOneQuery() {
+        List<MealListItem> all = mealRepository.findPageByUserId(userId, MealCursor.FIRST.mealTime(),
+                MealCursor.FIRST.id(), true, Pageable.unpaged());
+
+        assertEquals(1, statementsSinceLastCall());
+        assertEquals(30, all.size());
+        assertEquals(List.of("rice", "egg"), all.get(29).ingredients());
+    }
+}
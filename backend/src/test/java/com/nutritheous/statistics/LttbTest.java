@@ -0,0 +1,57 @@
+package com.nutritheous.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LttbTest {
+
+    @Test
+    void keepsEveryPointWhenThresholdIsNotBelowLength() {
+        double[] y = {1, 2, 3, 4};
+
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Lttb.selectIndices(y, 4));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Lttb.selectIndices(y, 10));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Lttb.selectIndices(y, 2));
+    }
+
+    @Test
+    void returnsThresholdAscendingIndicesIncludingBothEnds() {
+        double[] y = new double[1_000];
+        for (int i = 0; i < y.length; i++) {
+            y[i] = Math.sin(i / 25.0) * 100;
+        }
+
+        int[] selected = Lttb.selectIndices(y, 50);
+
+        assertEquals(50, selected.length);
+        assertEquals(0, selected[0]);
+        assertEquals(999, selected[49]);
+        for (int i = 1; i < selected.length; i++) {
+            assertTrue(selected[i] > selected[i - 1], "indices ascend at " + i);
+        }
+    }
+
+    @Test
+    void keepsIsolatedSpikesAndDips() {
+        double[] y = new double[365];
+        for (int i = 0; i < y.length; i++) {
+            y[i] = 2_000;
+        }
+        y[100] = 6_000;
+        y[250] = 0;
+
+        int[] selected = Lttb.selectIndices(y, 30);
+
+        boolean spike = false;
+        boolean dip = false;
+        for (int index : selected) {
+            spike |= index == 100;
+            dip |= index == 250;
+        }
+        assertTrue(spike, "spike kept");
+        assertTrue(dip, "dip kept");
+    }
+}
@@ -0,0 +1,35 @@
+package com.nutritheous.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SeriesGranularityTest {
+
+    @Test
+    void bucketCountIncludesPartialBucketsAtBothEnds() {
+        LocalDate wednesday = LocalDate.of(2025, 1, 1);
+        LocalDate nextMonday = LocalDate.of(2025, 1, 6);
+
+        assertEquals(1, SeriesGranularity.DAY.bucketCount(wednesday, wednesday));
+        assertEquals(6, SeriesGranularity.DAY.bucketCount(wednesday, nextMonday));
+        assertEquals(2, SeriesGranularity.WEEK.bucketCount(wednesday, nextMonday));
+        assertEquals(2, SeriesGranularity.MONTH.bucketCount(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 2, 1)));
+        assertEquals(3, SeriesGranularity.YEAR.bucketCount(LocalDate.of(2023, 12, 31), LocalDate.of(2025, 1, 1)));
+    }
+
+    @Test
+    void bucketCountMatchesIteratingTheBuckets() {
+        LocalDate start = LocalDate.of(1990, 3, 17);
+        LocalDate end = LocalDate.of(2025, 8, 2);
+        for (SeriesGranularity granularity : SeriesGranularity.values()) {
+            long iterated = 0;
+            for (LocalDate bucket = granularity.truncate(start); !bucket.isAfter(end); bucket = granularity.next(bucket)) {
+                iterated++;
+            }
+            assertEquals(iterated, granularity.bucketCount(start, end), granularity.getUnit());
+        }
+    }
+}
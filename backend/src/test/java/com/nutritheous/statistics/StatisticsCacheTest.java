@@ -0,0 +1,46 @@
+package com.nutritheous.statistics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatisticsCacheTest {
+
+    private final UUID userId = UUID.randomUUID();
+
+    private static StatisticsCache cache(Duration ttl) {
+        return new StatisticsCache(new SimpleMeterRegistry(), true, 100, 32, ttl, false, 20, 200, 2, 1.5);
+    }
+
+    @Test
+    void eachEntryExpiresOnItsOwnTtl() throws InterruptedException {
+        StatisticsCache cache = cache(Duration.ofMillis(300));
+        AtomicInteger loadsA = new AtomicInteger();
+        AtomicInteger loadsB = new AtomicInteger();
+
+        cache.get(userId, "a", loadsA::incrementAndGet);
+        Thread.sleep(200);
+        cache.get(userId, "b", loadsB::incrementAndGet);
+        Thread.sleep(150);
+
+        assertEquals(2, (int) cache.get(userId, "a", loadsA::incrementAndGet), "a is past its TTL");
+        assertEquals(1, (int) cache.get(userId, "b", loadsB::incrementAndGet), "b is still fresh");
+    }
+
+    @Test
+    void invalidationDropsTheUsersEntries() {
+        StatisticsCache cache = cache(Duration.ofMinutes(10));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(userId, "a", loads::incrementAndGet);
+        assertEquals(1, (int) cache.get(userId, "a", loads::incrementAndGet));
+
+        cache.invalidate(userId);
+        assertEquals(2, (int) cache.get(userId, "a", loads::incrementAndGet));
+    }
+}
@@ -0,0 +1,74 @@
+package com.nutritheous.statistics;
+
+import com.nutritheous.QueryCountTest;
+import com.nutritheous.statistics.dto.NutritionSummary;
+import com.nutritheous.statistics.dto.PeriodicSummaryStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The periodic and range summaries read the daily rollup once per request, however many
+ * periods they report (user-033).
+ */
+class StatisticsServiceQueryCountTest extends QueryCountTest {
+
+    @Autowired
+    private DailyNutritionRepository dailyNutritionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private StatisticsService statisticsService;
+    private UUID userId;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        StatisticsCache cache = new StatisticsCache(new SimpleMeterRegistry(), true, 100, 32,
+                Duration.ofMinutes(10), false, 20, 200, 2, 1.5);
+        statisticsService = new StatisticsService(dailyNutritionRepository, cache);
+
+        userId = UUID.randomUUID();
+        today = LocalDate.now();
+        jdbcTemplate.update("INSERT INTO users (id, email, password_hash) VALUES (?, ?, 'x')",
+                userId, userId + "@example.com");
+        for (int day = 0; day < 200; day += 2) {
+            jdbcTemplate.update("""
+                    INSERT INTO daily_nutrition (user_id, meal_date, meal_count, lunch_count, total_calories, total_protein_g)
+                    VALUES (?, ?, 1, 1, 600, 30)
+                    """, userId, today.minusDays(day));
+        }
+        statementsSinceLastCall();
+    }
+
+    @Test
+    void periodicSummaryReadsTheRollupOnce() {
+        PeriodicSummaryStats stats = statisticsService.getPeriodicSummaryStats(userId);
+
+        assertEquals(1, statementsSinceLastCall());
+        assertEquals(4, stats.getWeek().getTotalMeals());
+        assertEquals(15, stats.getMonth().getTotalMeals());
+
+        statisticsService.getPeriodicSummaryStats(userId);
+        assertEquals(0, statementsSinceLastCall(), "second call is served from the cache");
+    }
+
+    @Test
+    void nutritionSummaryReadsTheRangeOnce() {
+        NutritionSummary summary = statisticsService.getNutritionSummary(userId,
+                today.minusDays(29).atStartOfDay(), today.atTime(23, 59, 59));
+
+        assertEquals(1, statementsSinceLastCall());
+        assertEquals(15, summary.getTotalMeals().longValue());
+        assertEquals(15, summary.getDailyStats().size());
+    }
+}